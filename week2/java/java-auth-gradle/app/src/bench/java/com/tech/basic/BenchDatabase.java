@@ -0,0 +1,75 @@
+package com.tech.basic;
+
+import org.h2.tools.Server;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+벤치마크용 내장 DB
+H2 를 TCP 서버 모드로 띄워서 MariaDB 처럼 "소켓 연결 + 인증" 비용이 드는 환경을 흉내낸다.
+ */
+public class BenchDatabase implements AutoCloseable {
+
+    public static final String USER = "sa";
+    public static final String PASSWORD = "";
+
+    private final Server server;
+    private final String url;
+
+    public BenchDatabase(String name) throws SQLException {
+        this(name, null);
+    }
+
+    // dir 이 있으면 메모리 대신 그 디렉터리의 파일 DB (행이 많아도 벤치마크 JVM 의 힙을 차지하지 않는다)
+    public BenchDatabase(String name, Path dir) throws SQLException {
+        this.server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        // MODE=MariaDB 로 실 서버와 같은 SQL 을 그대로 사용
+        String location = dir == null ? "mem:" + name : dir.resolve(name).toAbsolutePath().toString();
+        this.url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/" + location
+                + ";MODE=MariaDB;DB_CLOSE_DELAY=-1";
+        try (Connection conn = connect(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS users ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "username VARCHAR(100) NOT NULL UNIQUE, "
+                    + "password VARCHAR(100) NOT NULL, "
+                    + "role VARCHAR(20) NOT NULL)");
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, USER, PASSWORD);
+    }
+
+    // user0 ~ user{n-1} 을 미리 넣어 둔다 (비밀번호 해시는 벤치마크에서 의미가 없으므로 고정값)
+    public void seedUsers(int n, String passwordHash) throws SQLException {
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT INTO users(username, password, role) VALUES(?, ?, 'user')")) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < n; i++) {
+                ps.setString(1, "user" + i);
+                ps.setString(2, passwordHash);
+                ps.addBatch();
+                if (i % 1000 == 999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+            conn.commit();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+}
@@ -0,0 +1,56 @@
+package com.tech.basic;
+
+/*
+UsernameBloomFilter 메모리/정확도 측정 (기본 1,000만 username)
+ - 넣은 username 은 모두 mightContain == true 여야 한다 (false negative 0)
+ - 넣지 않은 username 100만 개로 실제 오탐률 측정
+
+./gradlew :app:runBloomFilterBenchmark -Dbench.usernames=10000000 -Dbench.fpp=0.01
+ */
+public class BloomFilterBenchmark {
+
+    public static void main(String[] args) {
+        int n = Integer.getInteger("bench.usernames", 10_000_000);
+        double fpp = Double.parseDouble(System.getProperty("bench.fpp", "0.01"));
+        int probes = Integer.getInteger("bench.probes", 1_000_000);
+
+        UsernameBloomFilter filter = new UsernameBloomFilter(n, fpp);
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            filter.add("user" + i);
+        }
+        double addSecs = (System.nanoTime() - start) / 1e9;
+
+        long falseNegatives = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            if (!filter.mightContain("user" + i)) {
+                falseNegatives++;
+            }
+        }
+        double hitSecs = (System.nanoTime() - start) / 1e9;
+
+        long falsePositives = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("ghost-" + i)) {
+                falsePositives++;
+            }
+        }
+        double missSecs = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("usernames=%,d target fpp=%.4f bits=%,d hashes=%d%n",
+                n, fpp, filter.getBitCount(), filter.getHashCount());
+        System.out.printf("memory             : %,d bytes (%.1f MB, %.2f bits/username)%n",
+                filter.getMemoryBytes(), filter.getMemoryBytes() / 1048576.0, filter.getBitCount() / (double) n);
+        System.out.printf("false negatives    : %d%n", falseNegatives);
+        System.out.printf("false positive rate: %.4f measured, %.4f estimated%n",
+                falsePositives / (double) probes, filter.getEstimatedFpp());
+        System.out.printf("add                : %,.0f ops/s%n", n / addSecs);
+        System.out.printf("mightContain (hit) : %,.0f ops/s%n", n / hitSecs);
+        System.out.printf("mightContain (miss): %,.0f ops/s%n", probes / missSecs);
+        if (falseNegatives != 0) {
+            throw new IllegalStateException("bloom filter returned false negatives");
+        }
+    }
+}
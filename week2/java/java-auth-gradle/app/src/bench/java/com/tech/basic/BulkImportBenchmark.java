@@ -0,0 +1,74 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.JdbcUserRepository;
+import com.tech.basic.SimpleAuthServer.User;
+import com.tech.basic.SimpleAuthServer.UserRepository;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+대량 등록 처리량: 한 행씩 save (기존 /api/signup 방식) vs BulkUserImporter (병렬 해시 + JDBC batch)
+해시는 서버와 같이 PasswordHasher.bounded 풀에서 계산한다 (여기서는 로그인이 없으므로 풀 전체를 쓴다)
+CSV 에 1% 중복 행을 섞어서 중복 보고가 batch 를 멈추지 않는지도 확인한다.
+실제 운영 비용(12)으로 10만 건은 수십 분이 걸리므로 기본 cost 는 4.
+
+./gradlew :app:runBulkImportBenchmark -Dbench.users=100000 -Dbench.bcryptCost=4 -Dbench.chunkSize=1000
+ */
+public class BulkImportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("bench.users", 100_000);
+        int cost = Integer.getInteger("bench.bcryptCost", 4);
+        int chunkSize = Integer.getInteger("bench.chunkSize", 1000);
+        int singleRows = Integer.getInteger("bench.singleRows", 5_000);
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        StringBuilder csv = new StringBuilder("username,password,role\n");
+        for (int i = 0; i < users; i++) {
+            // 100 번째마다 바로 앞 사용자를 한 번 더 넣어 중복을 만든다
+            int id = i % 100 == 99 ? i - 1 : i;
+            csv.append("bulk").append(id).append(",pw").append(id).append(",user\n");
+        }
+        System.out.printf("users=%,d bcryptCost=%d chunkSize=%d hashThreads=%d%n", users, cost, chunkSize, threads);
+
+        try (BenchDatabase db = new BenchDatabase("bulk_import_bench");
+             ConnectionPool pool = new ConnectionPool(db.getUrl(), BenchDatabase.USER, BenchDatabase.PASSWORD, 4)) {
+            UserRepository repo = new JdbcUserRepository(pool);
+
+            // 기존 방식: 조회 + 해시 + 단건 INSERT 를 한 행씩
+            long start = System.nanoTime();
+            for (int i = 0; i < singleRows; i++) {
+                String name = "single" + i;
+                if (repo.findByUsername(name) == null) {
+                    User u = new User();
+                    u.setUsername(name);
+                    u.setPassword(BCrypt.hashpw("pw" + i, BCrypt.gensalt(cost)));
+                    u.setRole("user");
+                    repo.save(u);
+                }
+            }
+            double singleSecs = (System.nanoTime() - start) / 1e9;
+            System.out.printf("row-by-row : %,10.0f rows/s (%,d rows, %.1fs)%n",
+                    singleRows / singleSecs, singleRows, singleSecs);
+
+            ExecutorService hashPool = Executors.newFixedThreadPool(threads);
+            try {
+                BulkUserImporter importer = new BulkUserImporter(repo, PasswordHasher.bounded(cost, threads, 64),
+                        hashPool, chunkSize, Long.MAX_VALUE);
+                start = System.nanoTime();
+                BulkUserImporter.Result result = importer.importUsers(
+                        new BufferedReader(new StringReader(csv.toString())), BulkUserImporter.Format.CSV);
+                double bulkSecs = (System.nanoTime() - start) / 1e9;
+                System.out.printf("bulk import: %,10.0f rows/s (%,d rows, %.1fs) inserted=%,d duplicates=%,d invalid=%,d%n",
+                        result.getTotal() / bulkSecs, result.getTotal(), bulkSecs,
+                        result.getInserted(), result.getDuplicates(), result.getInvalid());
+            } finally {
+                hashPool.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.tech.basic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+server.executor 모드(platform / virtual / hybrid) 별 처리량과 p99 지연 비교
+
+/api/login 흉내: JDBC 대기(sleep) + BCrypt 검증, /static 흉내: 작은 바이트 응답
+BCrypt 는 서버와 같은 SimpleAuthServer.createHasher 구성 (virtual: 요청 스레드에서 직접, platform/hybrid: 전용 풀, 넘치면 503)
+두 요청을 섞어서(기본 login 20%) 고정 동시성으로 부하를 건다.
+
+./gradlew :app:runExecutorLoadTest -Dbench.concurrency=64 -Dbench.seconds=10
+ */
+public class ExecutorLoadTest {
+
+    private static final byte[] STATIC_BODY = "body { margin: 0; }".getBytes();
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("bench.concurrency", 64);
+        int seconds = Integer.getInteger("bench.seconds", 10);
+        int loginPercent = Integer.getInteger("bench.loginPercent", 20);
+        int dbMillis = Integer.getInteger("bench.dbMillis", 5);
+        int cost = Integer.getInteger("bench.bcryptCost", 8);
+        String[] modes = System.getProperty("bench.modes", "platform,virtual,hybrid").split(",");
+
+        String hash = new PasswordHasher(cost).hash("password");
+        System.out.printf("concurrency=%d, seconds=%d, login=%d%%, dbMillis=%d, bcryptCost=%d, cores=%d%n",
+                concurrency, seconds, loginPercent, dbMillis, cost, Runtime.getRuntime().availableProcessors());
+
+        for (String mode : modes) {
+            // 서버와 같은 구성: virtual 은 요청 스레드에서 직접, platform/hybrid 는 코어 수 전용 풀
+            PasswordHasher hasher = SimpleAuthServer.createHasher(mode,
+                    cost, Runtime.getRuntime().availableProcessors(), 64);
+            ExecutorService serverExecutor = SimpleAuthServer.createExecutor(mode, 10, 10_000);
+
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(serverExecutor);
+            server.createContext("/static", exchange -> respond(exchange, STATIC_BODY));
+            server.createContext("/api/login", exchange -> {
+                try {
+                    Thread.sleep(dbMillis);
+                    hasher.check("password", hash);
+                    respond(exchange, STATIC_BODY);
+                } catch (RejectedExecutionException busy) {
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                } catch (Exception e) {
+                    exchange.sendResponseHeaders(500, -1);
+                    exchange.close();
+                }
+            });
+            server.start();
+
+            try {
+                String base = "http://127.0.0.1:" + server.getAddress().getPort();
+                drive(mode, base, concurrency, 2, loginPercent, false);
+                drive(mode, base, concurrency, seconds, loginPercent, true);
+            } finally {
+                server.stop(0);
+                serverExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    // 각 클라이언트 스레드가 응답을 받으면 다음 요청을 보내는 closed-loop 부하
+    private static void drive(String mode, String base, int concurrency, int seconds, int loginPercent, boolean report)
+            throws InterruptedException {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(4);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+        HttpRequest staticReq = HttpRequest.newBuilder(URI.create(base + "/static/style.css")).build();
+        HttpRequest loginReq = HttpRequest.newBuilder(URI.create(base + "/api/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("username=u&password=password"))
+                .build();
+
+        List<Long> staticLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> loginLatencies = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Thread t = Thread.ofVirtual().start(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    boolean login = rnd.nextInt(100) < loginPercent;
+                    long start = System.nanoTime();
+                    try {
+                        client.send(login ? loginReq : staticReq, HttpResponse.BodyHandlers.discarding());
+                    } catch (Exception e) {
+                        continue;
+                    }
+                    (login ? loginLatencies : staticLatencies).add(System.nanoTime() - start);
+                }
+            });
+            workers.add(t);
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+        clientExecutor.shutdownNow();
+        if (report) {
+            long total = staticLatencies.size() + loginLatencies.size();
+            System.out.printf("%-8s %,10.0f req/s | static p50 %7.2fms p99 %7.2fms | login p50 %7.2fms p99 %7.2fms%n",
+                    mode, total / (double) seconds,
+                    percentile(staticLatencies, 50), percentile(staticLatencies, 99),
+                    percentile(loginLatencies, 50), percentile(loginLatencies, 99));
+        }
+    }
+
+    static double percentile(List<Long> samples, double p) {
+        long[] sorted;
+        synchronized (samples) {
+            sorted = samples.stream().mapToLong(Long::longValue).toArray();
+        }
+        if (sorted.length == 0) return 0.0;
+        Arrays.sort(sorted);
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.tech.basic;
+
+import java.io.BufferedReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/*
+TableExporter 처리량: 내장 H2(TCP) 의 users 테이블을 threads=1 과 threads=N 으로 내보내 비교
+ - H2 는 파일 DB 로 두고 힙 128m 로 실행: 행 수가 늘어도 메모리가 평평한지(스트리밍) 확인, 힙 최대 사용량을 출력
+ - 출력 파일의 줄 수가 행 수와 같은지, PK 순서가 유지되는지 검사한다
+ - 마지막 사용자의 id 를 SPARSE_ID(10^12)로 바꿔 둔다: 구간이 PK 값이 아니라 행 수로 나뉘는지 (구간 수가 그대로인지) 본다
+
+./gradlew :app:runExportBenchmark -Dbench.users=1000000 -Dbench.threads=4 -Dbench.chunkRows=50000
+ */
+public class ExportBenchmark {
+
+    private static final long SPARSE_ID = 1_000_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("bench.users", 1_000_000);
+        int threads = Integer.getInteger("bench.threads", 4);
+        long chunkRows = Long.getLong("bench.chunkRows", 50_000);
+        int fetchSize = Integer.getInteger("bench.fetchSize", 1000);
+        System.out.printf("users=%,d threads=%d chunkRows=%,d fetchSize=%d maxHeap=%dMB%n",
+                users, threads, chunkRows, fetchSize, Runtime.getRuntime().maxMemory() >> 20);
+
+        Path dir = Files.createTempDirectory("export-bench");
+        try (BenchDatabase db = new BenchDatabase("export_bench", dir.resolve("db"));
+             ConnectionPool pool = new ConnectionPool(db.getUrl(), BenchDatabase.USER, BenchDatabase.PASSWORD,
+                     Math.max(threads, 1))) {
+            db.seedUsers(users, "$2a$10$abcdefghijklmnopqrstuu0123456789012345678901234567890");
+            try (ConnectionPool.Lease lease = pool.borrow();
+                 var ps = lease.connection().prepareStatement("UPDATE users SET id = ? WHERE id = ?")) {
+                ps.setLong(1, SPARSE_ID);
+                ps.setLong(2, users);
+                ps.executeUpdate();
+            }
+            for (TableExporter.Format format : TableExporter.Format.values()) {
+                for (int t : new int[]{1, threads}) {
+                    resetPeakHeap();
+                    TableExporter exporter = new TableExporter(pool, dir.resolve("out"), format, fetchSize, t,
+                            chunkRows, Set.of("password"), 0);
+                    TableExporter.Result r = exporter.export("users");
+                    double secs = r.nanos() / 1e9;
+                    System.out.printf("%-6s threads=%d : %,10.0f rows/s (%,d rows, %d chunks, %.2fs, %,dMB file)"
+                                    + " peak heap %dMB%n",
+                            format, t, r.rows() / secs, r.rows(), r.chunks(), secs,
+                            Files.size(r.file()) >> 20, peakHeap() >> 20);
+                    verify(r, format, users);
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    // 줄 수 = 행 수, id 는 1 부터 빠짐없이 오름차순 (마지막 행만 SPARSE_ID)
+    private static void verify(TableExporter.Result r, TableExporter.Format format, int users) throws Exception {
+        long expectedId = 1;
+        try (BufferedReader in = Files.newBufferedReader(r.file())) {
+            if (format == TableExporter.Format.CSV) {
+                in.readLine(); // 헤더
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String id = format == TableExporter.Format.CSV
+                        ? line.substring(0, line.indexOf(','))
+                        : line.substring(line.indexOf(':') + 1, line.indexOf(','));
+                if (Long.parseLong(id) != (expectedId == users ? SPARSE_ID : expectedId)) {
+                    throw new IllegalStateException("expected id " + expectedId + " but got: " + line);
+                }
+                expectedId++;
+            }
+        }
+        if (expectedId - 1 != users || r.rows() != users) {
+            throw new IllegalStateException("expected " + users + " rows, file has " + (expectedId - 1)
+                    + ", exporter counted " + r.rows());
+        }
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+}
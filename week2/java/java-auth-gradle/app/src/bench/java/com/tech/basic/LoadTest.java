@@ -0,0 +1,245 @@
+package com.tech.basic;
+
+import com.sun.net.httpserver.HttpServer;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+로컬 부하 테스트: MariaDB 없이 내장 H2(BenchDatabase) 로 SimpleAuthServer 를 같은 JVM 에 띄우고
+사용자 bench.users 명을 넣은 뒤 섞인 요청을 고정 속도(open-loop)로 보낸다
+ - signup : POST /api/signup (새 username)                  → 302
+ - login  : POST /api/login  (미리 넣은 사용자)              → 302 + SESSION_ID, 이 세션을 home 에서 쓴다
+ - home   : GET  /home       (로그인으로 받은 세션 쿠키)      → 200
+ - static : GET  /static/style.css (gzip), /static/app.js    → 200
+비율은 bench.mix=signup:2,login:8,home:45,static:45, 전체 속도는 bench.rate (초당 요청)
+지연은 예정된 전송 시각부터 잰다 (서버가 밀려도 측정이 같이 느려지지 않도록), 앞쪽 bench.warmupSeconds 는 버린다.
+경로별 처리량과 p50/p99/p999, 기대와 다른 상태 코드 수를 출력한다.
+
+서버 설정은 -Dconfig.file=... 로 바꿀 수 있다. 단 아래는 테스트가 정한다:
+server.port=0, 로그인 제한 끔(같은 IP 에서 보내므로), audit.sink=off, bcrypt.cost=bench.bcryptCost (넣어 둔 해시와 같게)
+SimpleAuthServer 는 설정을 클래스 로드 시 한 번 읽고 start() 도 JVM 당 한 번뿐이므로 실행 하나에 서버 하나,
+설정을 바꿔 비교하려면 gradle 을 다시 실행한다.
+
+./gradlew :app:runLoadTest -Dbench.rate=300 -Dbench.seconds=30 -Dbench.users=10000 -Dbench.bcryptCost=10
+ */
+public class LoadTest {
+
+    private static final String PASSWORD = "password";
+    private static final String[] ROUTES = {"signup", "login", "home", "static"};
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("bench.users", 10_000);
+        int rate = Integer.getInteger("bench.rate", 200);
+        int seconds = Integer.getInteger("bench.seconds", 20);
+        int warmupSeconds = Integer.getInteger("bench.warmupSeconds", 5);
+        int cost = Integer.getInteger("bench.bcryptCost", 8);
+        int dbPool = Integer.getInteger("bench.dbPool", 10);
+        int primed = Integer.getInteger("bench.sessions", 32);
+        int[] weights = parseMix(System.getProperty("bench.mix", "signup:2,login:8,home:45,static:45"));
+
+        System.setProperty("server.port", "0");
+        System.setProperty("login.ip.burst", "0");
+        System.setProperty("login.user.burst", "0");
+        System.setProperty("audit.sink", "off");
+        System.setProperty("bcrypt.cost", String.valueOf(cost));
+
+        try (BenchDatabase db = new BenchDatabase("load_test");
+             ConnectionPool pool = new ConnectionPool(db.getUrl(), BenchDatabase.USER, BenchDatabase.PASSWORD,
+                     dbPool)) {
+            long seedStart = System.nanoTime();
+            db.seedUsers(users, BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost)));
+            System.out.printf("seeded %,d users in %d ms%n", users,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            HttpServer server = SimpleAuthServer.start(new SimpleAuthServer.JdbcUserRepository(pool), pool);
+            try {
+                run(server.getAddress().getPort(), users, rate, seconds, warmupSeconds, primed, weights, cost);
+            } finally {
+                server.stop(0);
+            }
+        }
+        // 서버 executor / 스케줄러 스레드가 남아 있으므로 직접 끝낸다
+        System.exit(0);
+    }
+
+    private static void run(int port, int users, int rate, int seconds, int warmupSeconds, int primed,
+                            int[] weights, int cost) throws Exception {
+        String base = "http://127.0.0.1:" + port;
+        ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        // 로그인으로 받은 세션 쿠키 (가장 최근 1024 개를 돌려 쓴다)
+        AtomicReferenceArray<String> sessions = new AtomicReferenceArray<>(1024);
+        AtomicLong sessionCount = new AtomicLong();
+        for (int i = 0; i < primed; i++) {
+            HttpResponse<Void> res = client.send(login(base, "user" + i), HttpResponse.BodyHandlers.discarding());
+            addSession(res, sessions, sessionCount);
+        }
+        if (sessionCount.get() == 0) {
+            throw new IllegalStateException("priming logins returned no session cookie");
+        }
+
+        Map<String, Stats> stats = new TreeMap<>();
+        for (String route : ROUTES) {
+            stats.put(route, new Stats());
+        }
+        int totalWeight = 0;
+        for (int w : weights) totalWeight += w;
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        SplittableRandom random = new SplittableRandom(42);
+        List<HttpRequest> statics = List.of(
+                HttpRequest.newBuilder(URI.create(base + "/static/style.css")).header("Accept-Encoding", "gzip").build(),
+                HttpRequest.newBuilder(URI.create(base + "/static/app.js")).build());
+
+        System.out.printf("rate=%d/s, seconds=%d (+%d warm-up), users=%,d, bcryptCost=%d, mix=%s, cores=%d%n",
+                rate, seconds, warmupSeconds, users, cost, System.getProperty("bench.mix", "default"),
+                Runtime.getRuntime().availableProcessors());
+        List<CompletableFuture<?>> inflight = new ArrayList<>();
+        long periodNanos = 1_000_000_000L / rate;
+        long total = (long) rate * (seconds + warmupSeconds);
+        long measureFrom = (long) rate * warmupSeconds;
+        long start = System.nanoTime();
+        for (long n = 0; n < total; n++) {
+            long scheduled = start + n * periodNanos;
+            long sleep = scheduled - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+            int pick = random.nextInt(totalWeight);
+            int route = 0;
+            while (pick >= weights[route]) {
+                pick -= weights[route++];
+            }
+            HttpRequest request = switch (route) {
+                case 0 -> form(base + "/api/signup",
+                        "username=load-" + runId + "-" + n + "&password=" + PASSWORD + "&role=user");
+                case 1 -> login(base, "user" + random.nextInt(users));
+                case 2 -> HttpRequest.newBuilder(URI.create(base + "/home"))
+                        .header("Cookie", pickSession(sessions, sessionCount, random))
+                        .build();
+                default -> statics.get(random.nextInt(statics.size()));
+            };
+            int expected = route <= 1 ? 302 : 200;
+            Stats s = n >= measureFrom ? stats.get(ROUTES[route]) : null;
+            boolean isLogin = route == 1;
+            inflight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((res, err) -> {
+                        if (isLogin && res != null) {
+                            addSession(res, sessions, sessionCount);
+                        }
+                        if (s != null) {
+                            s.record(System.nanoTime() - scheduled, res == null ? -1 : res.statusCode(), expected);
+                        }
+                    }));
+        }
+        long sendEnd = System.nanoTime();
+        try {
+            CompletableFuture.allOf(inflight.toArray(new CompletableFuture[0]))
+                    .handle((v, e) -> null).get(60, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("some requests were still in flight after 60s");
+        }
+        double measured = (sendEnd - (start + measureFrom * periodNanos)) / 1e9;
+        clientExecutor.shutdownNow();
+
+        System.out.printf("%-7s %8s %8s %7s %9s %9s %9s %9s  %s%n",
+                "route", "count", "ok/s", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms", "unexpected status");
+        long all = 0;
+        long allOk = 0;
+        for (Map.Entry<String, Stats> e : stats.entrySet()) {
+            Stats s = e.getValue();
+            LatencyHistogram h = s.latency;
+            long ok = s.ok.sum();
+            all += h.getCount();
+            allOk += ok;
+            System.out.printf("%-7s %8d %8.1f %7d %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    e.getKey(), h.getCount(), ok / measured, h.getCount() - ok,
+                    h.quantile(0.5) / 1e6, h.quantile(0.99) / 1e6, h.quantile(0.999) / 1e6,
+                    h.getMaxNanos() / 1e6, s.unexpected.isEmpty() ? "-" : new TreeMap<>(s.unexpected));
+        }
+        System.out.printf("total   %8d %8.1f %7d   (offered %d/s over %.1fs)%n",
+                all, allOk / measured, all - allOk, rate, measured);
+    }
+
+    private static HttpRequest login(String base, String username) {
+        return form(base + "/api/login", "username=" + username + "&password=" + PASSWORD);
+    }
+
+    private static HttpRequest form(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void addSession(HttpResponse<?> res, AtomicReferenceArray<String> sessions, AtomicLong count) {
+        for (String cookie : res.headers().allValues("Set-Cookie")) {
+            if (cookie.startsWith("SESSION_ID=")) {
+                int end = cookie.indexOf(';');
+                long slot = count.getAndIncrement() % sessions.length();
+                sessions.set((int) slot, end < 0 ? cookie : cookie.substring(0, end));
+                return;
+            }
+        }
+    }
+
+    private static String pickSession(AtomicReferenceArray<String> sessions, AtomicLong count,
+                                      SplittableRandom random) {
+        String cookie = sessions.get((int) random.nextLong(Math.min(count.get(), sessions.length())));
+        // 번호만 먼저 잡고 아직 채워지지 않은 칸이면 미리 받아 둔 첫 세션
+        return cookie != null ? cookie : sessions.get(0);
+    }
+
+    // "signup:2,login:8,home:45,static:45" → ROUTES 순서의 가중치
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[ROUTES.length];
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            int route = List.of(ROUTES).indexOf(kv[0].trim());
+            if (route < 0 || kv.length != 2) {
+                throw new IllegalArgumentException("bench.mix: expected route:weight with route in "
+                        + List.of(ROUTES) + ", got " + part);
+            }
+            weights[route] = Integer.parseInt(kv[1].trim());
+        }
+        return weights;
+    }
+
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder ok = new LongAdder();
+        // 기대와 다른 상태 코드별 횟수 (-1 은 연결 실패/타임아웃)
+        final Map<Integer, LongAdder> unexpected = new ConcurrentHashMap<>();
+
+        void record(long nanos, int status, int expected) {
+            latency.record(nanos);
+            if (status == expected) {
+                ok.increment();
+            } else {
+                unexpected.computeIfAbsent(status, k -> new LongAdder()).increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tech.basic;
+
+import com.sun.management.ThreadMXBean;
+import com.tech.basic.SimpleAuthServer.User;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/*
+MappedSessionStore: 재기동(파일 재연결) 시간, 조회 처리량, 조회당 힙 할당량 측정
+
+./gradlew :app:runMappedSessionStoreBenchmark -Dbench.sessions=500000
+ */
+public class MappedSessionStoreBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sessions = Integer.getInteger("bench.sessions", 500_000);
+        int capacity = Integer.highestOneBit(sessions * 2 - 1) * 2;
+        Path file = Files.createTempFile("sessions", ".dat");
+
+        String[] ids = new String[sessions];
+        try (MappedSessionStore store = new MappedSessionStore(file, capacity, 1800_000L, 28_800_000L)) {
+            User u = new User();
+            u.setRole("user");
+            for (int i = 0; i < sessions; i++) {
+                ids[i] = UUID.randomUUID().toString();
+                u.setId((long) i);
+                u.setUsername("user" + i);
+                store.put(ids[i], u);
+            }
+            System.out.printf("sessions=%,d capacity=%,d file=%,d bytes%n", sessions, store.getCapacity(), Files.size(file));
+        }
+
+        // 재기동 흉내: 같은 파일에 다시 붙는다
+        long start = System.nanoTime();
+        MappedSessionStore store = new MappedSessionStore(file, capacity, 1800_000L, 28_800_000L);
+        System.out.printf("reattach           : %.2f ms, size=%,d%n", (System.nanoTime() - start) / 1e6, store.size());
+
+        // 워밍업 후 findUserId 의 스레드 힙 할당량 측정
+        long checksum = 0;
+        for (int i = 0; i < sessions; i++) {
+            checksum += store.findUserId(ids[i]);
+        }
+        ThreadMXBean mx = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().threadId();
+        long allocBefore = mx.getThreadAllocatedBytes(tid);
+        start = System.nanoTime();
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < sessions; i++) {
+                checksum += store.findUserId(ids[i]);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = mx.getThreadAllocatedBytes(tid) - allocBefore;
+        System.out.printf("findUserId         : %,.0f ops/s, %.3f bytes allocated/lookup (checksum %d)%n",
+                sessions * 4 / (nanos / 1e9), allocated / (sessions * 4.0), checksum);
+
+        start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            store.get(ids[i]);
+        }
+        System.out.printf("get (User)         : %,.0f ops/s%n", sessions / ((System.nanoTime() - start) / 1e9));
+
+        store.close();
+        Files.deleteIfExists(file);
+    }
+}
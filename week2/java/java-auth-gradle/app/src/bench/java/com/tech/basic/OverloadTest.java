@@ -0,0 +1,157 @@
+package com.tech.basic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+과부하 테스트: 처리 능력보다 많은 요청을 일정한 속도로 보낸다 (open-loop, 응답을 기다리지 않음)
+bench.executor(platform/virtual/hybrid) 에서 LoadShedder 끄기/켜기를 비교
+ - /static    : 싼 요청, 차단 대상 아님
+ - /api/login : JDBC 대기(sleep) + BCrypt 검증, 과부하 시 차단 대상 (동시 실행 bench.maxExpensive 개)
+
+shed=off 면 큐가 계속 자라 login/static 모두 수 초 지연, shed=on 이면 늦은 login 을 바로 503 으로
+돌려보내 static 지연과 성공한 login 지연이 target 근처에 머무는지 본다.
+
+./gradlew :app:runOverloadTest -Dbench.loginRate=80 -Dbench.staticRate=200 -Dbench.seconds=10
+./gradlew :app:runOverloadTest -Dbench.executor=hybrid
+ */
+public class OverloadTest {
+
+    private static final byte[] BODY = "body { margin: 0; }".getBytes();
+
+    public static void main(String[] args) throws Exception {
+        String mode = System.getProperty("bench.executor", "platform");
+        int threads = Integer.getInteger("bench.threads", 4);
+        int maxExpensive = Integer.getInteger("bench.maxExpensive", Math.max(1, threads / 2));
+        int queue = Integer.getInteger("bench.queue", 1000);
+        int loginRate = Integer.getInteger("bench.loginRate", 80);
+        int staticRate = Integer.getInteger("bench.staticRate", 200);
+        int seconds = Integer.getInteger("bench.seconds", 10);
+        int dbMillis = Integer.getInteger("bench.dbMillis", 2);
+        int cost = Integer.getInteger("bench.bcryptCost", 8);
+        long targetMs = Long.getLong("bench.targetMs", 20);
+        long intervalMs = Long.getLong("bench.intervalMs", 200);
+
+        PasswordHasher hasher = new PasswordHasher(cost);
+        String hash = hasher.hash("password");
+        System.out.printf("executor=%s, threads=%d, queue=%d, maxExpensive=%d, login=%d/s, static=%d/s, seconds=%d,"
+                        + " bcryptCost=%d, cores=%d%n", mode, threads, queue, maxExpensive, loginRate, staticRate,
+                seconds, cost, Runtime.getRuntime().availableProcessors());
+
+        for (boolean shedding : new boolean[]{false, true}) {
+            // 끈 경우: target/interval 을 사실상 무한대로, 동시 실행 제한 없음
+            LoadShedder shedder = shedding
+                    ? new LoadShedder(TimeUnit.MILLISECONDS.toNanos(targetMs), TimeUnit.MILLISECONDS.toNanos(intervalMs),
+                            maxExpensive)
+                    : new LoadShedder(Long.MAX_VALUE, Long.MAX_VALUE);
+            ExecutorService executor = SimpleAuthServer.createExecutor(mode, threads, queue);
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+            server.setExecutor(Metrics.queueTimed(executor));
+            server.createContext("/static", Metrics.instrument("overload/static",
+                    shedder.guard(false, exchange -> respond(exchange, 200))));
+            HttpHandler login = exchange -> {
+                try {
+                    Thread.sleep(dbMillis);
+                    hasher.check("password", hash);
+                    respond(exchange, 200);
+                } catch (Exception e) {
+                    respond(exchange, 500);
+                }
+            };
+            server.createContext("/api/login", Metrics.instrument("overload/login", shedder.guard(true, login)));
+            server.start();
+            try {
+                run(shedding ? "shed=on" : "shed=off", "http://127.0.0.1:" + server.getAddress().getPort(),
+                        loginRate, staticRate, seconds, shedder);
+            } finally {
+                server.stop(0);
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, BODY.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(BODY);
+        }
+    }
+
+    private static void run(String label, String base, int loginRate, int staticRate, int seconds, LoadShedder shedder)
+            throws Exception {
+        ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest staticReq = HttpRequest.newBuilder(URI.create(base + "/static")).build();
+        HttpRequest loginReq = HttpRequest.newBuilder(URI.create(base + "/api/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("username=u&password=password"))
+                .build();
+
+        List<Long> staticLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> loginOk = Collections.synchronizedList(new ArrayList<>());
+        List<Long> loginShed = Collections.synchronizedList(new ArrayList<>());
+        LongAdder errors = new LongAdder();
+        List<CompletableFuture<?>> inflight = new ArrayList<>();
+
+        // 두 요청 종류를 정해진 간격으로 섞어서 보낸다
+        int totalRate = loginRate + staticRate;
+        long periodNanos = 1_000_000_000L / totalRate;
+        long start = System.nanoTime();
+        long n = 0;
+        while (n < (long) totalRate * seconds) {
+            long due = start + n * periodNanos;
+            long sleep = due - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+            boolean isLogin = (n % totalRate) < loginRate;
+            long sent = System.nanoTime();
+            inflight.add(client.sendAsync(isLogin ? loginReq : staticReq, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((res, err) -> {
+                        long latency = System.nanoTime() - sent;
+                        if (err != null) {
+                            errors.increment();
+                        } else if (!isLogin) {
+                            staticLatencies.add(latency);
+                        } else if (res.statusCode() == 200) {
+                            loginOk.add(latency);
+                        } else {
+                            loginShed.add(latency);
+                        }
+                    }));
+            n++;
+        }
+        CompletableFuture.allOf(inflight.toArray(new CompletableFuture[0])).handle((v, e) -> null).get();
+        clientExecutor.shutdownNow();
+
+        System.out.printf("%-8s static p50 %7.1fms p99 %7.1fms | login ok %5d (%5.1f/s) p50 %7.1fms p99 %7.1fms"
+                        + " | 503 %5d p99 %6.1fms | errors %d | shed %d%n",
+                label,
+                ExecutorLoadTest.percentile(staticLatencies, 50), ExecutorLoadTest.percentile(staticLatencies, 99),
+                loginOk.size(), loginOk.size() / (double) seconds,
+                ExecutorLoadTest.percentile(loginOk, 50), ExecutorLoadTest.percentile(loginOk, 99),
+                loginShed.size(), ExecutorLoadTest.percentile(loginShed, 99),
+                errors.sum(), shedder.getShedCount());
+    }
+}
@@ -0,0 +1,67 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.JdbcUserRepository;
+import com.tech.basic.SimpleAuthServer.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+요청마다 새 연결(DriverManager) vs ConnectionPool 처리량 비교
+
+./gradlew :app:runPoolBenchmark -Dbench.threads=8 -Dbench.seconds=5 -Dbench.users=10000
+ */
+public class PoolBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("bench.threads", 8);
+        int seconds = Integer.getInteger("bench.seconds", 5);
+        int users = Integer.getInteger("bench.users", 10_000);
+
+        try (BenchDatabase db = new BenchDatabase("pool_bench")) {
+            db.seedUsers(users, "x");
+            System.out.printf("threads=%d, seconds=%d, users=%d%n", threads, seconds, users);
+
+            UserRepository direct = new JdbcUserRepository(db.getUrl(), BenchDatabase.USER, BenchDatabase.PASSWORD);
+            run("direct (warm-up)", direct, threads, 1, users);
+            run("direct", direct, threads, seconds, users);
+
+            try (ConnectionPool pool = new ConnectionPool(db.getUrl(), BenchDatabase.USER, BenchDatabase.PASSWORD, threads)) {
+                UserRepository pooled = new JdbcUserRepository(pool);
+                run("pooled (warm-up)", pooled, threads, 1, users);
+                run("pooled", pooled, threads, seconds, users);
+                System.out.println(pool);
+            }
+        }
+    }
+
+    private static void run(String label, UserRepository repo, int threads, int seconds, int users)
+            throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    try {
+                        repo.findByUsername("user" + rnd.nextInt(users));
+                        ops.increment();
+                    } catch (Exception e) {
+                        errors.increment();
+                    }
+                }
+            });
+            workers.add(w);
+            w.start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        System.out.printf("%-18s %,12.0f ops/s  (errors=%d)%n", label, ops.sum() / (double) seconds, errors.sum());
+    }
+}
@@ -0,0 +1,73 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+InMemorySessionStore 메모리/속도 측정 (기본 100만 세션)
+사용자 객체는 미리 만들어 두고, 세션 저장소가 추가로 쓰는 힙만 센다.
+
+./gradlew :app:runSessionStoreBenchmark -Dbench.sessions=1000000
+ */
+public class SessionStoreBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int sessions = Integer.getInteger("bench.sessions", 1_000_000);
+
+        User[] users = new User[1000];
+        for (int i = 0; i < users.length; i++) {
+            User u = new User();
+            u.setId((long) i);
+            u.setUsername("user" + i);
+            u.setRole("user");
+            users[i] = u;
+        }
+        String[] ids = new String[sessions];
+        for (int i = 0; i < sessions; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+
+        long before = usedHeap();
+        InMemorySessionStore store = new InMemorySessionStore(30 * 60_000L, 8 * 3600_000L, sessions, 0);
+        long start = System.nanoTime();
+        for (int i = 0; i < sessions; i++) {
+            store.put(ids[i], users[i % users.length]);
+        }
+        long putNanos = System.nanoTime() - start;
+        long after = usedHeap();
+
+        // 세션 ID 문자열은 측정 전에 만들었으므로 제외된다 (UUID 문자열 1개당 약 80 bytes 추가)
+        System.out.printf("sessions=%,d size=%,d%n", sessions, store.size());
+        System.out.printf("heap used by store : %,d bytes (%.1f MB, %.0f bytes/session, session id strings excluded)%n",
+                after - before, (after - before) / 1048576.0, (after - before) / (double) sessions);
+        System.out.printf("put                : %,.0f ops/s%n", sessions / (putNanos / 1e9));
+
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int lookups = sessions * 2;
+        start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            store.get(ids[rnd.nextInt(sessions)]);
+        }
+        System.out.printf("get (sliding)      : %,.0f ops/s%n", lookups / ((System.nanoTime() - start) / 1e9));
+
+        // 용량 초과 시 LRU 제거 비용
+        start = System.nanoTime();
+        for (int i = 0; i < sessions / 10; i++) {
+            store.put(UUID.randomUUID().toString(), users[0]);
+        }
+        System.out.printf("put over capacity  : %,.0f ops/s, evictions=%,d, size=%,d%n",
+                (sessions / 10) / ((System.nanoTime() - start) / 1e9), store.getEvictionCount(), store.size());
+        store.close();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
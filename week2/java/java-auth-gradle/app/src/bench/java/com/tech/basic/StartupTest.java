@@ -0,0 +1,222 @@
+package com.tech.basic;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+기동 측정: SimpleAuthServer 를 별도 JVM 으로 띄워 (DB 는 내장 H2)
+ - first : JVM 시작 ~ 첫 HTTP 응답 (GET /login)
+ - ready : JVM 시작 ~ /ready 200 (warm-up 을 끈 경우 first 와 같다)
+ - steady: JVM 시작 ~ 1초 구간별 페이지 p99 가 끝까지 안정 p99(뒤쪽 절반)의 1.5 배 이내로 들어온 첫 구간
+ready 가 되자마자 로드밸런서처럼 고정 속도로 요청을 보낸다 (정적 파일/로그인 페이지 + 로그인 POST)
+세 가지로 비교: cold (warm-up 없음) / warmup / warmup+cds (학습 실행으로 만든 AppCDS 아카이브 사용)
+
+./gradlew :app:runStartupTest -Dbench.seconds=15 -Dbench.pageRate=200 -Dbench.loginRate=2
+ */
+public class StartupTest {
+
+    public static void main(String[] args) throws Exception {
+        String java = System.getProperty("bench.java", ProcessHandle.current().info().command().orElse("java"));
+        String classpath = System.getProperty("bench.classpath", System.getProperty("java.class.path"));
+        int seconds = Integer.getInteger("bench.seconds", 15);
+        int pageRate = Integer.getInteger("bench.pageRate", 200);
+        int loginRate = Integer.getInteger("bench.loginRate", 2);
+        int users = Integer.getInteger("bench.users", 1000);
+        int cost = Integer.getInteger("bench.bcryptCost", 10);
+        System.out.printf("seconds=%d, pages=%d/s, logins=%d/s, bcryptCost=%d, cores=%d%n",
+                seconds, pageRate, loginRate, cost, Runtime.getRuntime().availableProcessors());
+
+        Path work = Files.createTempDirectory("startup-test");
+        try (BenchDatabase db = new BenchDatabase("startup_test")) {
+            db.seedUsers(users, BCrypt.hashpw("password", BCrypt.gensalt(cost)));
+            // 서버 설정은 빈 값을 "기본값 사용" 으로 읽으므로 비밀번호가 있는 계정을 따로 만든다
+            try (var conn = db.connect(); var st = conn.createStatement()) {
+                st.execute("CREATE USER IF NOT EXISTS bench PASSWORD 'bench' ADMIN");
+            }
+            List<String> common = List.of(
+                    "-Ddb.url=" + db.getUrl(), "-Ddb.user=bench", "-Ddb.password=bench",
+                    "-Dbcrypt.cost=" + cost, "-Daudit.sink=off", "-Dlogin.ip.burst=0");
+            String archive = work.resolve("app.jsa").toString();
+            List<String> cds = List.of("-XX:SharedArchiveFile=" + archive, "-XX:+AutoCreateSharedArchive");
+
+            run("cold", java, classpath, concat(common, List.of("-Dwarmup.enabled=false")), work,
+                    seconds, pageRate, loginRate, users);
+            run("warmup", java, classpath, common, work, seconds, pageRate, loginRate, users);
+
+            // 학습 실행: warm-up 까지 돌고 종료하면서 아카이브를 남긴다
+            Process train = start(java, classpath, concat(cds, common, List.of("-Dwarmup.exit=true")),
+                    freePort(), work.resolve("train.log"));
+            if (!train.waitFor(300, TimeUnit.SECONDS) || !Files.exists(Path.of(archive))) {
+                train.destroyForcibly();
+                System.out.println("CDS training failed:\n" + Files.readString(work.resolve("train.log")));
+                return;
+            }
+            run("warm+cds", java, classpath, concat(cds, common), work, seconds, pageRate, loginRate, users);
+        } finally {
+            try (var files = Files.walk(work)) {
+                files.sorted(Collections.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void run(String label, String java, String classpath, List<String> options, Path work,
+                            int seconds, int pageRate, int loginRate, int users) throws Exception {
+        int port = freePort();
+        String base = "http://127.0.0.1:" + port;
+        ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Path log = work.resolve(label + ".log");
+        long launched = System.nanoTime();
+        Process server = start(java, classpath, options, port, log);
+        try {
+            long first = waitFor(client, base + "/login", launched, server, log);
+            long ready = waitFor(client, base + "/ready", launched, server, log);
+
+            List<HttpRequest> pages = List.of(
+                    HttpRequest.newBuilder(URI.create(base + "/login")).build(),
+                    HttpRequest.newBuilder(URI.create(base + "/static/style.css")).build(),
+                    HttpRequest.newBuilder(URI.create(base + "/static/app.js")).build());
+            // 구간(초)마다 페이지/로그인 지연
+            List<List<Long>> pageWindows = new ArrayList<>();
+            List<List<Long>> loginWindows = new ArrayList<>();
+            for (int i = 0; i < seconds; i++) {
+                pageWindows.add(Collections.synchronizedList(new ArrayList<>()));
+                loginWindows.add(Collections.synchronizedList(new ArrayList<>()));
+            }
+            List<CompletableFuture<?>> inflight = new ArrayList<>();
+            int totalRate = pageRate + loginRate;
+            long periodNanos = 1_000_000_000L / totalRate;
+            long start = System.nanoTime();
+            for (long n = 0; n < (long) totalRate * seconds; n++) {
+                long sleep = start + n * periodNanos - System.nanoTime();
+                if (sleep > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                }
+                boolean isLogin = (n % totalRate) < loginRate;
+                HttpRequest request = isLogin
+                        ? HttpRequest.newBuilder(URI.create(base + "/api/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "username=user" + (n % users) + "&password=password"))
+                        .build()
+                        : pages.get((int) (n % pages.size()));
+                int window = (int) (n / totalRate);
+                long sent = System.nanoTime();
+                inflight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((res, err) -> {
+                            if (err == null) {
+                                (isLogin ? loginWindows : pageWindows).get(window).add(System.nanoTime() - sent);
+                            }
+                        }));
+            }
+            CompletableFuture.allOf(inflight.toArray(new CompletableFuture[0])).handle((v, e) -> null).get();
+
+            // 안정 p99: 뒤쪽 절반 구간 전체의 p99
+            List<Long> tail = new ArrayList<>();
+            for (int i = seconds / 2; i < seconds; i++) {
+                tail.addAll(pageWindows.get(i));
+            }
+            double steadyP99 = ExecutorLoadTest.percentile(tail, 99);
+            // 수 ms 대에서는 1.5 배가 잡음 수준이라 +5ms 까지는 안정으로 본다
+            double limit = Math.max(steadyP99 * 1.5, steadyP99 + 5);
+            int settled = 0;
+            for (int i = seconds - 1; i >= 0; i--) {
+                if (ExecutorLoadTest.percentile(pageWindows.get(i), 99) > limit) {
+                    settled = i + 1;
+                    break;
+                }
+            }
+            long loadStartMs = (start - launched) / 1_000_000;
+            StringBuilder series = new StringBuilder();
+            for (int i = 0; i < Math.min(5, seconds); i++) {
+                series.append(String.format(" %.1f", ExecutorLoadTest.percentile(pageWindows.get(i), 99)));
+            }
+            System.out.printf("%-9s first %5d ms | ready %5d ms | steady %6d ms | page p99 first 5s [%s ] ms,"
+                            + " steady %.1f ms | login p99 first 1s %.0f ms, last 1s %.0f ms%n",
+                    label, first, ready, loadStartMs + settled * 1000L, series,
+                    steadyP99, ExecutorLoadTest.percentile(loginWindows.get(0), 99),
+                    ExecutorLoadTest.percentile(loginWindows.get(seconds - 1), 99));
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+            clientExecutor.shutdownNow();
+        }
+        // 서버가 출력한 warm-up 단계별 시간
+        for (String line : Files.readAllLines(log)) {
+            if (line.startsWith("Warm-up") || line.startsWith("Ready")) {
+                System.out.println("          " + line);
+            }
+        }
+    }
+
+    private static Process start(String java, String classpath, List<String> options, int port, Path log)
+            throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(options);
+        command.add("-Dserver.port=" + port);
+        command.add("-cp");
+        command.add(classpath);
+        command.add("com.tech.basic.SimpleAuthServer");
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .directory(log.getParent().toFile())
+                .start();
+    }
+
+    // 200 이 올 때까지 5ms 간격으로 두드린다. JVM 시작부터 걸린 ms
+    private static long waitFor(HttpClient client, String url, long launched, Process server, Path log)
+            throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).build();
+        while (true) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("server exited with " + server.exitValue() + ":\n"
+                        + Files.readString(log));
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return (System.nanoTime() - launched) / 1_000_000;
+                }
+            } catch (IOException notYet) {
+                // 아직 listen 전
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @SafeVarargs
+    private static List<String> concat(List<String>... lists) {
+        List<String> all = new ArrayList<>();
+        for (List<String> l : lists) {
+            all.addAll(l);
+        }
+        return all;
+    }
+}
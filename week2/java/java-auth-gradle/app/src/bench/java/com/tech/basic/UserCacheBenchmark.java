@@ -0,0 +1,102 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.JdbcUserRepository;
+import com.tech.basic.SimpleAuthServer.User;
+import com.tech.basic.SimpleAuthServer.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Zipf 분포 로그인 조회(findByUsername)에서 CachingUserRepository 가 줄이는 DB 왕복 횟수 측정
+5% 는 존재하지 않는 username (negative caching 확인용)
+
+./gradlew :app:runUserCacheBenchmark -Dbench.users=100000 -Dbench.lookups=200000 -Dbench.zipf=1.0
+ */
+public class UserCacheBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("bench.users", 100_000);
+        int lookups = Integer.getInteger("bench.lookups", 200_000);
+        int threads = Integer.getInteger("bench.threads", 8);
+        double s = Double.parseDouble(System.getProperty("bench.zipf", "1.0"));
+
+        try (BenchDatabase db = new BenchDatabase("user_cache_bench");
+             ConnectionPool pool = new ConnectionPool(db.getUrl(), BenchDatabase.USER, BenchDatabase.PASSWORD, threads)) {
+            db.seedUsers(users, "x");
+            ZipfGenerator zipf = new ZipfGenerator(users, s);
+            System.out.printf("users=%,d lookups=%,d threads=%d zipf s=%.2f%n", users, lookups, threads, s);
+
+            CountingRepository direct = new CountingRepository(new JdbcUserRepository(pool));
+            run("no cache", direct, direct, zipf, lookups, threads);
+
+            CountingRepository counted = new CountingRepository(new JdbcUserRepository(pool));
+            CachingUserRepository cached = new CachingUserRepository(counted, 10_000, 60_000, 5_000);
+            run("cached", cached, counted, zipf, lookups, threads);
+            System.out.printf("  hits=%,d negativeHits=%,d misses=%,d coalesced=%,d loads=%,d%n",
+                    cached.getHitCount(), cached.getNegativeHitCount(), cached.getMissCount(),
+                    cached.getCoalescedCount(), cached.getLoadCount());
+        }
+    }
+
+    private static void run(String label, UserRepository repo, CountingRepository db, ZipfGenerator zipf,
+                            int lookups, int threads) throws InterruptedException {
+        LongAdder remaining = new LongAdder();
+        remaining.add(lookups);
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (true) {
+                    remaining.decrement();
+                    if (remaining.sum() < 0) break;
+                    String name = rnd.nextInt(100) < 5 ? "ghost" + rnd.nextInt(1000) : "user" + zipf.next();
+                    try {
+                        repo.findByUsername(name);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            workers.add(w);
+            w.start();
+        }
+        for (Thread w : workers) {
+            w.join();
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-9s %,10.0f lookups/s, DB queries=%,d (%.1f%% of lookups)%n",
+                label, lookups / secs, db.queries.sum(), db.queries.sum() * 100.0 / lookups);
+    }
+
+    // DB 조회 횟수를 세는 래퍼
+    static final class CountingRepository implements UserRepository {
+        final UserRepository delegate;
+        final LongAdder queries = new LongAdder();
+
+        CountingRepository(UserRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void save(User user) throws Exception {
+            queries.increment();
+            delegate.save(user);
+        }
+
+        @Override
+        public User findByUsername(String username) throws Exception {
+            queries.increment();
+            return delegate.findByUsername(username);
+        }
+
+        @Override
+        public boolean updatePassword(User user, String newHash) throws Exception {
+            queries.increment();
+            return delegate.updatePassword(user, newHash);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.tech.basic;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+0 ~ n-1 사이의 Zipf 분포 난수 (순위 k 의 확률 ∝ 1 / (k+1)^s)
+누적 분포를 미리 만들어 두고 이진 탐색으로 뽑는다.
+ */
+public class ZipfGenerator {
+
+    private final double[] cdf;
+
+    public ZipfGenerator(int n, double s) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+    }
+
+    public int next() {
+        int idx = Arrays.binarySearch(cdf, ThreadLocalRandom.current().nextDouble());
+        return Math.min(idx >= 0 ? idx : -idx - 1, cdf.length - 1);
+    }
+}
@@ -0,0 +1,75 @@
+package com.tech.basic.jmh;
+
+import com.tech.basic.AuditLog;
+import com.tech.basic.FileAuditSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+로그인 요청 스레드가 감사 이벤트 하나에 내는 비용 (8 스레드 동시)
+ - file    : 실제 세그먼트 파일 Sink, writer 가 따라가는 동안의 record 비용
+ - dropped : 버퍼가 가득 찬 상태(writer 가 멈춤)에서 버려지는 경로의 비용
+끝나면 enqueued/dropped/written 을 출력한다. 동기 INSERT(수백 us~ms)와 비교하는 용도.
+
+./gradlew :app:jmh -PjmhInclude=AuditLogBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class AuditLogBenchmark {
+
+    private Path dir;
+    private AuditLog fileLog;
+    private AuditLog fullLog;
+
+    @Setup
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("audit-bench");
+        fileLog = new AuditLog(new FileAuditSink(dir, 64L * 1024 * 1024, 4, false), 65536, 500, 10);
+        // writer 가 영원히 막혀 있는 Sink: 버퍼가 곧 가득 차서 이후로는 모두 drop 경로
+        fullLog = new AuditLog(batch -> Thread.sleep(Long.MAX_VALUE), 1024, 1024, 10);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fileLog.close();
+        System.out.printf("%nfile: enqueued=%d dropped=%d written=%d batches=%d | full: dropped=%d%n",
+                fileLog.getEnqueuedCount(), fileLog.getDroppedCount(), fileLog.getWrittenCount(),
+                fileLog.getBatchCount(), fullLog.getDroppedCount());
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean file() {
+        return fileLog.offer(new AuditLog.Event(System.currentTimeMillis(), AuditLog.Type.LOGIN_FAILURE,
+                "user123", 123, "10.0.0.1", "bad_password"));
+    }
+
+    @Benchmark
+    public boolean dropped() {
+        return fullLog.offer(new AuditLog.Event(System.currentTimeMillis(), AuditLog.Type.LOGIN_FAILURE,
+                "user123", 123, "10.0.0.1", "bad_password"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.tech.basic.jmh;
+
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+BCrypt cost 별 해시/검증 시간 (cost 가 1 오를 때마다 약 2배)
+로그인 한 번 = checkpw 한 번, 회원가입 한 번 = hashpw 한 번이므로 코어당 처리량의 상한이 된다.
+
+./gradlew :app:jmh -PjmhInclude=BCryptBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BCryptBenchmark {
+
+    private static final String PASSWORD = "p@ssw0rd!!";
+
+    @Param({"10", "11", "12", "13", "14"})
+    public int cost;
+
+    private String salt;
+    private String hashed;
+
+    @Setup
+    public void setUp() {
+        salt = BCrypt.gensalt(cost);
+        hashed = BCrypt.hashpw(PASSWORD, salt);
+    }
+
+    @Benchmark
+    public String hashpw() {
+        return BCrypt.hashpw(PASSWORD, salt);
+    }
+
+    @Benchmark
+    public boolean checkpw() {
+        return BCrypt.checkpw(PASSWORD, hashed);
+    }
+}
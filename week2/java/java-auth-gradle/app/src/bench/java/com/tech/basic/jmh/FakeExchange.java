@@ -0,0 +1,104 @@
+package com.tech.basic.jmh;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/*
+소켓 없이 핸들러/헬퍼를 호출하기 위한 HttpExchange
+응답 본문은 버리고 길이만 센다 (reset() 으로 같은 인스턴스를 반복 사용)
+ */
+final class FakeExchange extends HttpExchange {
+
+    private final String method;
+    private final URI uri;
+    private final Headers requestHeaders = new Headers();
+    private final Headers responseHeaders = new Headers();
+    private byte[] requestBody = new byte[0];
+    private int responseCode = -1;
+    private long responseLength = -1;
+    private long bytesWritten;
+    // capture() 를 부르면 본문도 모아 둔다 (결과 검증용)
+    private ByteArrayOutputStream captured;
+
+    private final OutputStream sink = new OutputStream() {
+        @Override
+        public void write(int b) {
+            bytesWritten++;
+            if (captured != null) captured.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytesWritten += len;
+            if (captured != null) captured.write(b, off, len);
+        }
+    };
+
+    FakeExchange(String method, String path) {
+        this.method = method;
+        this.uri = URI.create(path);
+    }
+
+    FakeExchange header(String name, String value) {
+        requestHeaders.add(name, value);
+        return this;
+    }
+
+    FakeExchange body(byte[] body) {
+        this.requestBody = body;
+        return this;
+    }
+
+    FakeExchange reset() {
+        responseHeaders.clear();
+        responseCode = -1;
+        responseLength = -1;
+        bytesWritten = 0;
+        if (captured != null) captured.reset();
+        return this;
+    }
+
+    FakeExchange capture() {
+        captured = new ByteArrayOutputStream();
+        return this;
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    long responseLength() {
+        return responseLength;
+    }
+
+    byte[] responseBody() {
+        return captured.toByteArray();
+    }
+
+    @Override public Headers getRequestHeaders() { return requestHeaders; }
+    @Override public Headers getResponseHeaders() { return responseHeaders; }
+    @Override public URI getRequestURI() { return uri; }
+    @Override public String getRequestMethod() { return method; }
+    @Override public HttpContext getHttpContext() { return null; }
+    @Override public void close() { }
+    @Override public InputStream getRequestBody() { return new ByteArrayInputStream(requestBody); }
+    @Override public OutputStream getResponseBody() { return sink; }
+    @Override public void sendResponseHeaders(int rCode, long length) { responseCode = rCode; responseLength = length; }
+    @Override public InetSocketAddress getRemoteAddress() { return new InetSocketAddress("127.0.0.1", 50000); }
+    @Override public int getResponseCode() { return responseCode; }
+    @Override public InetSocketAddress getLocalAddress() { return new InetSocketAddress("127.0.0.1", 8080); }
+    @Override public String getProtocol() { return "HTTP/1.1"; }
+    @Override public Object getAttribute(String name) { return null; }
+    @Override public void setAttribute(String name, Object value) { }
+    @Override public void setStreams(InputStream i, OutputStream o) { }
+    @Override public HttpPrincipal getPrincipal() { return null; }
+}
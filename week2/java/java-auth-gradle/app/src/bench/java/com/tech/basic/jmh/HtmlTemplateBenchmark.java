@@ -0,0 +1,136 @@
+package com.tech.basic.jmh;
+
+import com.tech.basic.HtmlTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/*
+/home 페이지 본문을 만드는 비용 (소켓 쓰기 제외)
+ - formatted    : 예전 방식, 텍스트 블록 .formatted(replace 5번) + getBytes
+ - template     : HtmlTemplate (고정 조각 + 한 번 훑는 이스케이프), 압축 없음
+ - templateGzip : 같은 템플릿, 미리 압축한 조각 + stored 블록
+ - indexGzip    : /index (8KB 페이지) 를 gzip 으로
+setUp 에서 템플릿 출력이 예전 방식과 같은지, gzip 은 풀었을 때 같은지, Content-Length 가 맞는지 확인한다.
+
+./gradlew :app:jmh -PjmhInclude=HtmlTemplateBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlTemplateBenchmark {
+
+    private static final String USERNAME = "<kim & \"lee\"> 한준교";
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private HtmlTemplate home;
+    private HtmlTemplate index;
+    private FakeExchange identity;
+    private FakeExchange gzip;
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setUp() throws IOException {
+        ClassLoader loader = HtmlTemplateBenchmark.class.getClassLoader();
+        home = HtmlTemplate.load(loader, "templates/home.html", "username");
+        index = HtmlTemplate.load(loader, "main/index.html", "username");
+        identity = new FakeExchange("GET", "/home");
+        gzip = new FakeExchange("GET", "/home").header("Accept-Encoding", "gzip, deflate, br");
+
+        byte[] expected = formattedHome();
+        FakeExchange check = new FakeExchange("GET", "/home").capture();
+        home.render(check, CACHE_CONTROL, USERNAME);
+        verify(check, expected, false);
+        check = new FakeExchange("GET", "/home").header("Accept-Encoding", "gzip").capture();
+        home.render(check, CACHE_CONTROL, USERNAME);
+        verify(check, expected, true);
+    }
+
+    private static void verify(FakeExchange exchange, byte[] expected, boolean gzipped) throws IOException {
+        byte[] body = exchange.responseBody();
+        if (exchange.responseLength() != body.length) {
+            throw new IllegalStateException("Content-Length " + exchange.responseLength() + " != " + body.length);
+        }
+        if (gzipped) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                body = in.readAllBytes();
+            }
+        }
+        if (!Arrays.equals(body, expected)) {
+            throw new IllegalStateException("template output differs:\n" + new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public void formatted() throws IOException {
+        sink.write(formattedHome());
+    }
+
+    @Benchmark
+    public long template() throws IOException {
+        home.render(identity.reset(), CACHE_CONTROL, USERNAME);
+        return identity.bytesWritten();
+    }
+
+    @Benchmark
+    public long templateGzip() throws IOException {
+        home.render(gzip.reset(), CACHE_CONTROL, USERNAME);
+        return gzip.bytesWritten();
+    }
+
+    @Benchmark
+    public long indexGzip() throws IOException {
+        index.render(gzip.reset(), CACHE_CONTROL, USERNAME);
+        return gzip.bytesWritten();
+    }
+
+    // 바뀌기 전 /home 핸들러와 같은 코드
+    private static byte[] formattedHome() {
+        String body = """
+                <html>
+                <head>
+                  <meta charset='utf-8'/>
+                  <link rel='stylesheet' href='/static/style.css'/>
+                  <title>Home</title>
+                </head>
+                <body>
+                  <div class='container'>
+                    <h1>Welcome, %s</h1>
+                    <p>8080 서버의 /home 페이지입니다.</p>
+                    <form method='POST' action='/api/logout'>
+                      <button type='submit'>로그아웃</button>
+                    </form>
+                  </div>
+                </body>
+                </html>
+                """.formatted(escapeHtml(USERNAME));
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String escapeHtml(String s) {
+        if (s == null) return "";
+        return s.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#39;");
+    }
+}
@@ -0,0 +1,62 @@
+package com.tech.basic.jmh;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.tech.basic.SimpleAuthServer.JwtUtil;
+import com.tech.basic.SimpleAuthServer.User;
+import com.tech.basic.VerifiedTokenCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+로그인 성공 시 JwtUtil.createToken (HMAC256 서명 + Base64/JSON 인코딩) 비용
+/api/introspect 의 토큰 검증: 매번 JwtUtil.verify vs VerifiedTokenCache (같은 토큰 반복)
+
+./gradlew :app:jmh -PjmhInclude=JwtBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private User user;
+    private String token;
+    private VerifiedTokenCache cache;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(42L);
+        user.setUsername("hong@example.com");
+        user.setRole("user");
+        token = JwtUtil.createToken(user);
+        cache = new VerifiedTokenCache(10_000);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return JwtUtil.createToken(user);
+    }
+
+    @Benchmark
+    public DecodedJWT verify() {
+        return JwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT verifyCached() {
+        return cache.verify(token);
+    }
+}
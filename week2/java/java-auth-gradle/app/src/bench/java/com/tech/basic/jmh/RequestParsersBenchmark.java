@@ -0,0 +1,83 @@
+package com.tech.basic.jmh;
+
+import com.tech.basic.RequestParsers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+쿠키/폼 파싱: 기존 split + URLDecoder 구현(legacy*) vs RequestParsers
+-prof gc 를 붙이면 호출당 할당량(gc.alloc.rate.norm)도 비교할 수 있다.
+
+./gradlew :app:jmh -PjmhInclude=RequestParsersBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestParsersBenchmark {
+
+    private static final String SESSION_COOKIE_NAME = "SESSION_ID";
+
+    private final List<String> cookieHeaders = List.of(
+            "_ga=GA1.1.123456789.1700000000; APP_AUTH=1; USER_ROLE=user; "
+                    + "SESSION_ID=3f2504e0-4f89-11d3-9a0c-0305e82c3301; "
+                    + "ACCESS_TOKEN=eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiIxIn0.abc");
+    private final byte[] formBody = ("username=hong%40example.com&password=p%40ss+word%21%21&role=user"
+            + "&csrf=0123456789abcdef").getBytes(StandardCharsets.UTF_8);
+
+    @Benchmark
+    public String cookieLegacy() {
+        for (String header : cookieHeaders) {
+            String[] parts = header.split(";\\s*");
+            for (String part : parts) {
+                String[] kv = part.split("=", 2);
+                if (kv.length == 2 && SESSION_COOKIE_NAME.equals(kv[0])) {
+                    return kv[1];
+                }
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String cookieSinglePass() {
+        return RequestParsers.findCookie(cookieHeaders, SESSION_COOKIE_NAME);
+    }
+
+    @Benchmark
+    public Map<String, String> formLegacy() throws IOException {
+        String body = new String(new ByteArrayInputStream(formBody).readAllBytes(), StandardCharsets.UTF_8);
+        Map<String, String> params = new HashMap<>();
+        for (String pair : body.split("&")) {
+            if (pair.isEmpty()) continue;
+            String[] kv = pair.split("=", 2);
+            String key = URLDecoder.decode(kv[0], StandardCharsets.UTF_8);
+            String value = kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : "";
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    @Benchmark
+    public String[] formSinglePass() throws IOException {
+        return RequestParsers.parseForm(new ByteArrayInputStream(formBody), 8192, "username", "password", "role");
+    }
+}
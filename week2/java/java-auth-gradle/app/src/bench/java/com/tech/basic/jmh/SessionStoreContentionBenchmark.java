@@ -0,0 +1,104 @@
+package com.tech.basic.jmh;
+
+import com.tech.basic.InMemorySessionStore;
+import com.tech.basic.MappedSessionStore;
+import com.tech.basic.SessionStore;
+import com.tech.basic.SimpleAuthServer.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+SESSION_STORE 조회를 8 스레드가 동시에 할 때의 호출당 시간
+ - get     : 살아 있는 세션 조회 (idle 만료 연장 포함)
+ - getMiss : 없는 세션 ID (위조/만료 쿠키)
+ - mixed   : 조회 9 : 로그인(put) 1
+
+./gradlew :app:jmh -PjmhInclude=SessionStoreContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class SessionStoreContentionBenchmark {
+
+    private static final int SESSIONS = 100_000;
+
+    @Param({"memory", "mapped"})
+    public String store;
+
+    private SessionStore sessions;
+    private String[] ids;
+    private Path file;
+    private User user;
+
+    @Setup
+    public void setUp() throws Exception {
+        long idle = TimeUnit.MINUTES.toMillis(30);
+        long absolute = TimeUnit.HOURS.toMillis(8);
+        if ("mapped".equals(store)) {
+            file = Files.createTempFile("sessions", ".dat");
+            Files.delete(file);
+            sessions = new MappedSessionStore(file, 262_144, idle, absolute);
+        } else {
+            sessions = new InMemorySessionStore(idle, absolute, SESSIONS * 2, 30_000);
+        }
+        user = new User();
+        user.setId(1L);
+        user.setUsername("user1");
+        user.setRole("user");
+        ids = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            ids[i] = UUID.randomUUID().toString();
+            sessions.put(ids[i], user);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        ((AutoCloseable) sessions).close();
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public User get() {
+        return sessions.get(ids[ThreadLocalRandom.current().nextInt(SESSIONS)]);
+    }
+
+    @Benchmark
+    public User getMiss() {
+        return sessions.get("00000000-0000-0000-0000-00000000000" + ThreadLocalRandom.current().nextInt(10));
+    }
+
+    @Benchmark
+    public User mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String id = ids[random.nextInt(SESSIONS)];
+        if (random.nextInt(10) == 0) {
+            sessions.put(id, user);
+            return user;
+        }
+        return sessions.get(id);
+    }
+}
@@ -0,0 +1,68 @@
+package com.tech.basic.jmh;
+
+import com.tech.basic.StaticResourceCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/*
+serveResource (StaticResourceCache.serve) 호출당 시간, 소켓 쓰기는 제외
+ - gzip        : Accept-Encoding: gzip 인 브라우저 요청 (미리 압축한 본문)
+ - identity    : 압축을 받지 않는 클라이언트
+ - notModified : If-None-Match 가 일치해 304
+
+./gradlew :app:jmh -PjmhInclude=StaticResourceBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaticResourceBenchmark {
+
+    private static final String RESOURCE = "web/login.html";
+    private static final String CACHE_CONTROL = "no-cache";
+
+    private StaticResourceCache resources;
+    private FakeExchange gzip;
+    private FakeExchange identity;
+    private FakeExchange notModified;
+
+    @Setup
+    public void setUp() throws IOException {
+        resources = StaticResourceCache.load(StaticResourceBenchmark.class.getClassLoader(), "web", "main");
+        gzip = new FakeExchange("GET", "/login").header("Accept-Encoding", "gzip, deflate, br");
+        identity = new FakeExchange("GET", "/login");
+        resources.serve(gzip, RESOURCE, CACHE_CONTROL);
+        String etag = gzip.getResponseHeaders().getFirst("ETag");
+        notModified = new FakeExchange("GET", "/login")
+                .header("Accept-Encoding", "gzip, deflate, br")
+                .header("If-None-Match", etag);
+    }
+
+    @Benchmark
+    public boolean gzip() throws IOException {
+        return resources.serve(gzip.reset(), RESOURCE, CACHE_CONTROL);
+    }
+
+    @Benchmark
+    public boolean identity() throws IOException {
+        return resources.serve(identity.reset(), RESOURCE, CACHE_CONTROL);
+    }
+
+    @Benchmark
+    public boolean notModified() throws IOException {
+        return resources.serve(notModified.reset(), RESOURCE, CACHE_CONTROL);
+    }
+}
@@ -0,0 +1,77 @@
+package com.tech.basic.jmh;
+
+import com.tech.basic.TokenBucketLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+로그인 제한기 경합: 8 스레드가 서로 다른 10만 개 키(IP/username)에 대해 tryAcquire
+ - allowed  : 버킷이 넉넉해서 항상 통과
+ - rejected : 버킷이 비어 있어 항상 429 (공격 트래픽의 거절 비용)
+ - hotKey   : 모든 스레드가 같은 키 하나 (한 username 에 몰리는 credential stuffing)
+
+./gradlew :app:jmh -PjmhInclude=TokenBucketLimiterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class TokenBucketLimiterBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    private String[] keys;
+    private TokenBucketLimiter generous;
+    private TokenBucketLimiter exhausted;
+
+    @Setup
+    public void setUp() {
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "10." + (i >>> 16 & 0xff) + "." + (i >>> 8 & 0xff) + "." + (i & 0xff);
+        }
+        generous = new TokenBucketLimiter(1_000_000, 1_000_000, KEYS * 2, 0);
+        exhausted = new TokenBucketLimiter(1, 1e-6, KEYS * 2, 0);
+        for (String key : keys) {
+            generous.tryAcquire(key);
+            exhausted.tryAcquire(key);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        generous.close();
+        exhausted.close();
+    }
+
+    @Benchmark
+    public long allowed() {
+        return generous.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    public long rejected() {
+        return exhausted.tryAcquire(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+    }
+
+    @Benchmark
+    public long hotKey() {
+        return exhausted.tryAcquire(keys[0]);
+    }
+}
@@ -0,0 +1,228 @@
+package com.tech.basic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+로그인/회원가입 감사 로그 (write-behind)
+ - 요청 스레드는 고정 크기 링 버퍼에 이벤트를 넣기만 한다: CAS 한 번, 락/IO/DB 없음
+ - 버퍼가 가득 차면 기다리지 않고 버린다 (dropped 로 집계) -> 감사 때문에 인증이 느려지는 일은 없다
+ - writer 스레드 하나가 batchSize 개씩 꺼내 Sink(파일, JDBC 배치 INSERT)에 한 번에 쓴다
+링 버퍼는 슬롯별 sequence 를 둔 bounded MPSC 큐(Vyukov 방식): 여러 생산자는 tail CAS 로 슬롯을 차지하고,
+소비자는 하나뿐이라 head 는 CAS 없이 증가시킨다.
+ */
+public class AuditLog implements AutoCloseable {
+
+    public enum Type { LOGIN_SUCCESS, LOGIN_FAILURE, SIGNUP_SUCCESS, SIGNUP_FAILURE }
+
+    // userId 는 모르면 0, clientIp/reason 은 null 가능
+    public record Event(long timeMillis, Type type, String username, long userId, String clientIp, String reason) {
+    }
+
+    // writer 스레드 하나에서만 호출된다
+    public interface Sink extends AutoCloseable {
+        void write(List<Event> batch) throws Exception;
+
+        @Override
+        default void close() throws Exception {
+        }
+    }
+
+    // 배치 중 일부 행만 못 쓴 경우 (나머지는 저장됨)
+    public static class PartialWriteException extends Exception {
+        private final int failedRows;
+
+        public PartialWriteException(int failedRows, int batchSize, Throwable cause) {
+            super(failedRows + " of " + batchSize + " audit events rejected", cause);
+            this.failedRows = failedRows;
+        }
+
+        public int getFailedRows() { return failedRows; }
+    }
+
+    // 여러 Sink 에 같은 배치를 쓴다. 하나가 실패해도 나머지는 쓰고, 첫 예외를 던진다
+    public static Sink tee(List<Sink> sinks) {
+        return new Sink() {
+            @Override
+            public void write(List<Event> batch) throws Exception {
+                Exception first = null;
+                for (Sink s : sinks) {
+                    try {
+                        s.write(batch);
+                    } catch (Exception e) {
+                        if (first == null) first = e;
+                    }
+                }
+                if (first != null) throw first;
+            }
+
+            @Override
+            public void close() throws Exception {
+                for (Sink s : sinks) {
+                    s.close();
+                }
+            }
+        };
+    }
+
+    private final Sink sink;
+    private final int mask;
+    private final AtomicReferenceArray<Event> slots;
+    // 슬롯 i 의 sequence == pos 면 pos 번째 생산자가 쓸 수 있고, pos + 1 이면 소비자가 읽을 수 있다
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // 소비자(writer 스레드)만 쓴다. backlog 계산용으로 volatile
+    private volatile long head;
+    private final int batchSize;
+    private final long idleParkNanos;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // ==== METRICS ==== //
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    // 실패 로그는 ERROR_LOG_INTERVAL 에 한 번만 스택 트레이스를 찍는다 (DB 가 내려가면 배치마다 실패한다)
+    private static final long ERROR_LOG_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    // writer 스레드만 쓴다
+    private long lastErrorLogNanos = System.nanoTime() - ERROR_LOG_INTERVAL_NANOS;
+    private long suppressedErrors;
+
+    // capacity 는 2 의 거듭제곱으로 올림
+    public AuditLog(Sink sink, int capacity, int batchSize, long flushIntervalMillis) {
+        if (capacity < 2 || batchSize < 1) {
+            throw new IllegalArgumentException("capacity >= 2 and batchSize >= 1 required");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.sink = sink;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.batchSize = batchSize;
+        this.idleParkNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.writer = new Thread(this::drainLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void record(Type type, String username, long userId, String clientIp, String reason) {
+        offer(new Event(System.currentTimeMillis(), type, username, userId, clientIp, reason));
+    }
+
+    // 넣었으면 true, 버퍼가 가득 찼거나 닫혔으면 false (이벤트는 버려진다)
+    public boolean offer(Event event) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        while (true) {
+            long pos = tail.get();
+            int idx = (int) pos & mask;
+            long diff = sequences.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots.lazySet(idx, event);
+                    sequences.set(idx, pos + 1); // 소비자에게 공개
+                    enqueued.increment();
+                    return true;
+                }
+            } else if (diff < 0) {
+                dropped.increment(); // 한 바퀴 전 이벤트를 아직 못 꺼냄 = 가득 참
+                return false;
+            }
+            // diff > 0: 다른 생산자가 먼저 차지, tail 을 다시 읽는다
+        }
+    }
+
+    private Event poll() {
+        long pos = head;
+        int idx = (int) pos & mask;
+        if (sequences.get(idx) != pos + 1) {
+            return null;
+        }
+        Event e = slots.get(idx);
+        slots.lazySet(idx, null);
+        sequences.set(idx, pos + mask + 1); // 다음 바퀴의 생산자에게 반납
+        head = pos + 1;
+        return e;
+    }
+
+    private void drainLoop() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Event e;
+            while (batch.size() < batchSize && (e = poll()) != null) {
+                batch.add(e);
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+                continue; // 밀려 있으면 쉬지 않고 다음 배치
+            }
+            if (!running) {
+                return; // 닫힌 뒤 남은 이벤트까지 다 쓴 상태
+            }
+            // 비어 있으면 잠깐 쉰다: 생산자가 깨우지 않으므로 요청 경로에 unpark 비용이 없다
+            LockSupport.parkNanos(this, idleParkNanos);
+        }
+    }
+
+    private void flush(List<Event> batch) {
+        try {
+            sink.write(batch);
+            written.add(batch.size());
+        } catch (PartialWriteException ex) {
+            written.add(batch.size() - ex.getFailedRows());
+            failed.add(ex.getFailedRows());
+            logFailure(ex);
+        } catch (Exception ex) {
+            // 재시도하지 않는다: 쌓아 두면 결국 버퍼가 넘쳐 새 이벤트를 버리게 된다
+            failed.add(batch.size());
+            logFailure(ex);
+        }
+        batches.increment();
+    }
+
+    private void logFailure(Exception ex) {
+        long now = System.nanoTime();
+        if (now - lastErrorLogNanos < ERROR_LOG_INTERVAL_NANOS) {
+            suppressedErrors++;
+            return;
+        }
+        if (suppressedErrors > 0) {
+            System.err.println("audit: " + suppressedErrors + " more failed batches since last report");
+            suppressedErrors = 0;
+        }
+        lastErrorLogNanos = now;
+        ex.printStackTrace();
+    }
+
+    public long getBacklog() { return tail.get() - head; }
+    public int getCapacity() { return mask + 1; }
+    public long getEnqueuedCount() { return enqueued.sum(); }
+    public long getDroppedCount() { return dropped.sum(); }
+    public long getWrittenCount() { return written.sum(); }
+    public long getFailedCount() { return failed.sum(); }
+    public long getBatchCount() { return batches.sum(); }
+
+    // 남은 이벤트를 다 쓴 뒤 sink 를 닫는다
+    @Override
+    public void close() throws Exception {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        sink.close();
+    }
+}
@@ -0,0 +1,187 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+import com.tech.basic.SimpleAuthServer.UserRepository;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+블룸 필터로 "확실히 없는" username 조회를 DB 까지 보내지 않는 UserRepository 데코레이터
+ - 기동 시 users 테이블의 username 을 스트리밍으로 읽어 필터를 만든다 (rebuild)
+ - save() 성공 시 필터에 추가
+ - 넣은 개수가 예상치를 넘으면 두 배 크기로 다시 만든다 (save 로 넘치면 백그라운드, rebuild 스캔 중에 넘치면 그 자리에서)
+ - 키는 key() 로 접은 값: MariaDB 기본 콜레이션(utf8mb4_general_ci 등)은 대소문자/악센트/뒤 공백을 무시하므로
+   DB 가 같다고 보는 이름은 같은 키가 되도록 접는다 (더 많이 접는 것은 오탐만 늘 뿐 안전하다)
+   접은 뒤에도 ASCII 가 아닌 이름은 콜레이션 규칙을 다 흉내낼 수 없으므로 항상 DB 로 보낸다
+ - 필터는 서버마다 따로다: 여러 서버가 같은 DB 를 쓰면 다른 서버에서 가입한 사용자를 다음 rebuild 까지
+   "확실히 없음"으로 답한다. 그래서 기본은 꺼져 있고(user.bloom.expected=0) 켤 때는 rebuild 주기를 짧게 둔다
+ */
+public class BloomFilterUserRepository implements UserRepository {
+
+    // users 테이블의 모든 username 을 흘려보내는 함수 (JdbcUserRepository::forEachUsername)
+    @FunctionalInterface
+    public interface UsernameScanner {
+        void forEachUsername(Consumer<String> consumer) throws Exception;
+    }
+
+    private final UserRepository delegate;
+    private final UsernameScanner scanner;
+    private final double fpp;
+    private volatile long expectedInsertions;
+
+    // rebuild() 전(null)에는 모든 조회를 DB 로 보낸다
+    private volatile UsernameBloomFilter current;
+    // 재구성 중인 필터: 그 사이에 save 된 username 을 놓치지 않도록 양쪽에 모두 넣는다
+    private volatile UsernameBloomFilter building;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // added() 와 rebuild() 의 필터 교체를 묶는다: 교체 순간에 저장된 이름이 새 필터에서 빠지지 않도록
+    private final Object swapLock = new Object();
+
+    // ==== METRICS ==== //
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder passedThrough = new LongAdder();
+
+    public BloomFilterUserRepository(UserRepository delegate, UsernameScanner scanner,
+                                     long expectedInsertions, double fpp) {
+        this.delegate = delegate;
+        this.scanner = scanner;
+        this.fpp = fpp;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    // 필터를 처음부터 다시 만든다. 만드는 동안에는 기존 필터(또는 필터 없음)로 계속 응답한다.
+    public void rebuild() throws Exception {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (true) {
+                UsernameBloomFilter next = new UsernameBloomFilter(expectedInsertions, fpp);
+                synchronized (swapLock) {
+                    building = next;
+                }
+                LongAdder scanned = new LongAdder();
+                scanner.forEachUsername(name -> {
+                    next.add(key(name));
+                    scanned.increment();
+                });
+                // 예상보다 많으면 이 필터는 오탐률이 fpp 를 넘는다: 바꿔 끼우지 않고 두 배 크기로 곧바로 다시 만든다
+                if (scanned.sum() > expectedInsertions) {
+                    expectedInsertions = scanned.sum() * 2;
+                    continue;
+                }
+                synchronized (swapLock) {
+                    current = next;
+                    building = null;
+                }
+                return;
+            }
+        } finally {
+            synchronized (swapLock) {
+                building = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    @Override
+    public User findByUsername(String username) throws Exception {
+        UsernameBloomFilter filter = current;
+        String key = filter == null ? null : key(username);
+        if (key != null && isAscii(key) && !filter.mightContain(key)) {
+            definiteMisses.increment();
+            return null;
+        }
+        passedThrough.increment();
+        return delegate.findByUsername(username);
+    }
+
+    @Override
+    public void save(User user) throws Exception {
+        delegate.save(user);
+        added(user.getUsername());
+    }
+
+    @Override
+    public boolean[] saveAll(List<User> users) throws Exception {
+        boolean[] saved = delegate.saveAll(users);
+        for (int i = 0; i < saved.length; i++) {
+            if (saved[i]) {
+                added(users.get(i).getUsername());
+            }
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updatePassword(User user, String newHash) throws Exception {
+        return delegate.updatePassword(user, newHash);
+    }
+
+    private void added(String username) {
+        String key = key(username);
+        UsernameBloomFilter filter;
+        synchronized (swapLock) {
+            filter = current;
+            if (filter != null) {
+                filter.add(key);
+            }
+            UsernameBloomFilter next = building;
+            if (next != null) {
+                next.add(key);
+            }
+        }
+        if (filter != null && filter.getInsertionCount() > expectedInsertions) {
+            expectedInsertions *= 2;
+            rebuildInBackground();
+        }
+    }
+
+    // 소문자 + 악센트 제거(NFD 후 결합 문자 삭제) + 뒤 공백 제거 (PAD SPACE 콜레이션은 뒤 공백을 무시)
+    static String key(String username) {
+        String folded = Normalizer.normalize(username, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                sb.append(c);
+            }
+        }
+        int end = sb.length();
+        while (end > 0 && sb.charAt(end - 1) == ' ') {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rebuildInBackground() {
+        Thread t = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "username-bloom-rebuild");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public UsernameBloomFilter getFilter() { return current; }
+    public long getDefiniteMissCount() { return definiteMisses.sum(); }
+    public long getPassedThroughCount() { return passedThrough.sum(); }
+}
@@ -0,0 +1,314 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+import com.tech.basic.SimpleAuthServer.UserRepository;
+
+import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/*
+사용자 대량 등록
+요청 본문(CSV 또는 NDJSON)을 한 줄씩 읽어 chunkSize 개씩 묶은 뒤
+ 1) 형식/역할 검증
+ 2) 비밀번호 해시를 PasswordHasher(로그인과 같은 BCrypt 풀)로 계산. 동시에 맡기는 작업은 hashPool 스레드 수까지라
+    BCrypt 풀의 일부만 쓰고, 풀 대기열이 가득 차 거절되면 잠깐 쉬었다 다시 맡긴다 (로그인이 우선)
+ 3) UserRepository.saveAll 로 batch insert (중복 행은 건너뛰고 계속)
+한 번에 chunk 하나만 메모리에 있으므로 본문 크기와 관계없이 메모리 사용량이 일정하다.
+
+CSV   : username,password,role  (첫 줄이 "username," 으로 시작하면 헤더로 보고 건너뜀)
+NDJSON: {"username":"a","password":"b","role":"user"}
+ */
+public class BulkUserImporter {
+
+    public enum Format { CSV, NDJSON }
+
+    // 응답에 담는 실패 행 상세의 최대 개수 (집계 수치는 항상 전체)
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    // BCrypt 풀이 가득 차 거절됐을 때 다시 맡기기 전 쉬는 시간
+    private static final long REJECTED_BACKOFF_MILLIS = 50;
+
+    private final UserRepository repository;
+    private final PasswordHasher hasher;
+    // 해시 작업을 맡기고 기다리기만 하는 스레드 (스레드 수 = BCrypt 풀에 동시에 넣는 import 작업 수 상한)
+    private final ExecutorService hashPool;
+    private final int chunkSize;
+    private final long maxRows;
+
+    public BulkUserImporter(UserRepository repository, PasswordHasher hasher, ExecutorService hashPool,
+                            int chunkSize, long maxRows) {
+        this.repository = repository;
+        this.hasher = hasher;
+        this.hashPool = hashPool;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    public Result importUsers(BufferedReader reader, Format format) throws Exception {
+        Result result = new Result();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        String line;
+        long lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) continue;
+            if (format == Format.CSV && lineNo == 1 && line.startsWith("username,")) continue;
+            if (result.total >= maxRows) {
+                // 이미 저장한 chunk 는 그대로 두고 나머지는 처리하지 않는다
+                result.truncated = true;
+                break;
+            }
+            result.total++;
+
+            Row row = parse(line, format, lineNo);
+            String error = validate(row);
+            if (error != null) {
+                result.fail(lineNo, row == null ? null : row.username, error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                flush(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(chunk, result);
+        }
+        return result;
+    }
+
+    private void flush(List<Row> chunk, Result result) throws Exception {
+        // 해시 병렬 계산
+        List<Callable<String>> tasks = new ArrayList<>(chunk.size());
+        for (Row r : chunk) {
+            String raw = r.password;
+            tasks.add(() -> hash(raw));
+        }
+        List<Future<String>> hashes = hashPool.invokeAll(tasks);
+
+        List<User> users = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Row r = chunk.get(i);
+            User u = new User();
+            u.setUsername(r.username);
+            try {
+                u.setPassword(hashes.get(i).get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("password hashing failed", e.getCause());
+            }
+            u.setRole(r.role);
+            users.add(u);
+        }
+
+        boolean[] saved = repository.saveAll(users);
+        for (int i = 0; i < saved.length; i++) {
+            if (saved[i]) {
+                result.inserted++;
+            } else {
+                result.fail(chunk.get(i).line, chunk.get(i).username, "duplicate");
+            }
+        }
+    }
+
+    private String hash(String raw) throws Exception {
+        while (true) {
+            try {
+                return hasher.hash(raw);
+            } catch (RejectedExecutionException busy) {
+                Thread.sleep(REJECTED_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private static String validate(Row row) {
+        if (row == null) return "malformed";
+        if (isBlank(row.username) || isBlank(row.password)) return "username and password are required";
+        if (!"admin".equals(row.role) && !"user".equals(row.role)) return "role must be 'admin' or 'user'";
+        return null;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    // ========= 파싱 =========
+
+    static Row parse(String line, Format format, long lineNo) {
+        List<String> fields = format == Format.CSV ? parseCsv(line) : parseNdjson(line);
+        if (fields == null || fields.size() != 3) {
+            return null;
+        }
+        return new Row(lineNo, fields.get(0), fields.get(1), fields.get(2));
+    }
+
+    // 따옴표("a,b", "" 이스케이프)를 지원하는 한 줄 CSV
+    static List<String> parseCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        if (quoted) return null;
+        fields.add(cur.toString());
+        return fields;
+    }
+
+    // 문자열 값만 있는 평평한 JSON 객체에서 username/password/role 을 꺼낸다
+    static List<String> parseNdjson(String line) {
+        String username = null, password = null, role = null;
+        int i = skipWs(line, 0);
+        if (i >= line.length() || line.charAt(i) != '{') return null;
+        i = skipWs(line, i + 1);
+        if (i < line.length() && line.charAt(i) == '}') return null;
+        while (i < line.length()) {
+            StringBuilder key = new StringBuilder();
+            i = readJsonString(line, i, key);
+            if (i < 0) return null;
+            i = skipWs(line, i);
+            if (i >= line.length() || line.charAt(i) != ':') return null;
+            i = skipWs(line, i + 1);
+            StringBuilder value = new StringBuilder();
+            i = readJsonString(line, i, value);
+            if (i < 0) return null;
+            switch (key.toString()) {
+                case "username": username = value.toString(); break;
+                case "password": password = value.toString(); break;
+                case "role": role = value.toString(); break;
+                default: break;
+            }
+            i = skipWs(line, i);
+            if (i >= line.length()) return null;
+            char c = line.charAt(i);
+            if (c == '}') {
+                List<String> fields = new ArrayList<>(3);
+                fields.add(username);
+                fields.add(password);
+                fields.add(role);
+                return fields;
+            }
+            if (c != ',') return null;
+            i = skipWs(line, i + 1);
+        }
+        return null;
+    }
+
+    private static int skipWs(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    // s[i] 의 "..." 를 읽어 out 에 담고 닫는 따옴표 다음 위치를 돌려준다 (실패 시 -1)
+    private static int readJsonString(String s, int i, StringBuilder out) {
+        if (i >= s.length() || s.charAt(i) != '"') return -1;
+        i++;
+        while (i < s.length()) {
+            char c = s.charAt(i++);
+            if (c == '"') return i;
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            if (i >= s.length()) return -1;
+            char e = s.charAt(i++);
+            switch (e) {
+                case '"': case '\\': case '/': out.append(e); break;
+                case 'b': out.append('\b'); break;
+                case 'f': out.append('\f'); break;
+                case 'n': out.append('\n'); break;
+                case 'r': out.append('\r'); break;
+                case 't': out.append('\t'); break;
+                case 'u':
+                    if (i + 4 > s.length()) return -1;
+                    try {
+                        out.append((char) Integer.parseInt(s.substring(i, i + 4), 16));
+                    } catch (NumberFormatException nfe) {
+                        return -1;
+                    }
+                    i += 4;
+                    break;
+                default: return -1;
+            }
+        }
+        return -1;
+    }
+
+    static final class Row {
+        final long line;
+        final String username;
+        final String password;
+        final String role;
+
+        Row(long line, String username, String password, String role) {
+            this.line = line;
+            this.username = username;
+            this.password = password;
+            this.role = role;
+        }
+    }
+
+    // ========= 결과 =========
+
+    public static final class Result {
+        private long total;
+        private long inserted;
+        private long duplicates;
+        private long invalid;
+        private boolean truncated;
+        private final List<String> failures = new ArrayList<>();
+
+        void fail(long line, String username, String reason) {
+            if ("duplicate".equals(reason)) {
+                duplicates++;
+            } else {
+                invalid++;
+            }
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                StringBuilder json = new StringBuilder(64);
+                json.append("{\"line\":").append(line).append(",\"username\":");
+                SimpleAuthServer.appendJsonString(json, username);
+                json.append(",\"reason\":");
+                SimpleAuthServer.appendJsonString(json, reason);
+                failures.add(json.append('}').toString());
+            }
+        }
+
+        public long getTotal() { return total; }
+        public long getInserted() { return inserted; }
+        public long getDuplicates() { return duplicates; }
+        public long getInvalid() { return invalid; }
+        public boolean isTruncated() { return truncated; }
+
+        public String toJson() {
+            return "{\"total\":" + total
+                    + ",\"inserted\":" + inserted
+                    + ",\"duplicates\":" + duplicates
+                    + ",\"invalid\":" + invalid
+                    + ",\"truncated\":" + truncated
+                    + ",\"failures\":[" + String.join(",", failures) + "]}";
+        }
+    }
+}
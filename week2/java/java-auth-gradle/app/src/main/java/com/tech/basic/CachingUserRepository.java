@@ -0,0 +1,156 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+import com.tech.basic.SimpleAuthServer.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+UserRepository 앞단 read-through 캐시 (데코레이터)
+ - 최대 maxSize 개 (SegmentedLruCache), 항목마다 TTL
+ - 없는 사용자도 짧은 TTL 로 캐시 (negative caching)
+ - save() 하면 해당 username 캐시를 무효화
+ - 같은 username 을 동시에 조회하면 DB 조회는 한 번만 하고 나머지는 그 결과를 기다린다 (single-flight)
+ */
+public class CachingUserRepository implements UserRepository {
+
+    private final UserRepository delegate;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final SegmentedLruCache<String, Entry> cache;
+    private final Map<String, CompletableFuture<User>> inflight = new ConcurrentHashMap<>();
+    // save() 마다 증가: 조회 도중 무효화가 일어났으면 그 결과는 캐시에 넣지 않는다
+    private final AtomicLong generation = new AtomicLong();
+
+    // ==== METRICS ==== //
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public CachingUserRepository(UserRepository delegate, int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.cache = new SegmentedLruCache<>(maxSize);
+    }
+
+    @Override
+    public void save(User user) throws Exception {
+        try {
+            delegate.save(user);
+        } finally {
+            invalidate(user.getUsername());
+        }
+    }
+
+    @Override
+    public boolean[] saveAll(List<User> users) throws Exception {
+        try {
+            return delegate.saveAll(users);
+        } finally {
+            for (User u : users) {
+                invalidate(u.getUsername());
+            }
+        }
+    }
+
+    @Override
+    public boolean updatePassword(User user, String newHash) throws Exception {
+        try {
+            return delegate.updatePassword(user, newHash);
+        } finally {
+            invalidate(user.getUsername());
+        }
+    }
+
+    @Override
+    public User findByUsername(String username) throws Exception {
+        long now = System.currentTimeMillis();
+        Entry e = cache.get(username);
+        if (e != null && e.expiresAt > now) {
+            if (e.user == null) {
+                negativeHits.increment();
+                return null;
+            }
+            hits.increment();
+            return copy(e.user);
+        }
+        misses.increment();
+
+        CompletableFuture<User> mine = new CompletableFuture<>();
+        CompletableFuture<User> running = inflight.putIfAbsent(username, mine);
+        if (running != null) {
+            coalesced.increment();
+            return copy(await(running));
+        }
+        try {
+            long gen = generation.get();
+            loads.increment();
+            User loaded = delegate.findByUsername(username);
+            if (gen == generation.get()) {
+                long ttl = loaded == null ? negativeTtlMillis : ttlMillis;
+                cache.put(username, new Entry(loaded, System.currentTimeMillis() + ttl));
+            }
+            mine.complete(loaded);
+            return copy(loaded);
+        } catch (Exception ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inflight.remove(username, mine);
+        }
+    }
+
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        cache.remove(username);
+    }
+
+    private static User await(CompletableFuture<User> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // 호출자가 User 를 수정해도 캐시가 오염되지 않도록 복사본을 돌려준다
+    private static User copy(User u) {
+        if (u == null) return null;
+        User c = new User();
+        c.setId(u.getId());
+        c.setUsername(u.getUsername());
+        c.setPassword(u.getPassword());
+        c.setRole(u.getRole());
+        return c;
+    }
+
+    public int size() { return cache.size(); }
+    public int getMaxSize() { return cache.getMaxSize(); }
+    public long getHitCount() { return hits.sum(); }
+    public long getNegativeHitCount() { return negativeHits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getCoalescedCount() { return coalesced.sum(); }
+    public long getLoadCount() { return loads.sum(); }
+
+    private static final class Entry {
+        final User user; // null = 존재하지 않는 사용자
+        final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.tech.basic;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+크기 제한이 있는 단순 JDBC 커넥션 풀
+ - 최대 maxSize 개의 커넥션만 동시에 대여 (Semaphore)
+ - 대여 대기 시간이 maxWaitMillis 를 넘으면 SQLTransientConnectionException
+ - validateAfterMillis 이상 놀고 있던 커넥션은 대여 전에 isValid() 로 검증
+ - 커넥션마다 PreparedStatement 를 SQL 문자열 기준으로 캐시 (LRU)
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long validateAfterMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    // LIFO: 최근에 반납된(따뜻한) 커넥션부터 재사용
+    private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    // ==== METRICS ==== //
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password, int maxSize) {
+        this(url, user, password, maxSize, 5_000, 30_000, 32);
+    }
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long maxWaitMillis, long validateAfterMillis, int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.validateAfterMillis = validateAfterMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /*
+    열린 커넥션(idle + 대여 중)이 count 개(최대 maxSize)가 될 때까지만 더 열어 둔다 (기동 직후 첫 요청의 핸드셰이크 비용 제거)
+    여러 번 불러도 target 을 넘게 열지 않는다. 여는 동안 permit 을 잡으므로 대여와 합쳐도 maxSize 를 넘지 않는다.
+     */
+    public synchronized void prefill(int count) throws SQLException {
+        int target = Math.min(count, maxSize);
+        while (!closed && opened.get() < target && permits.tryAcquire()) {
+            try {
+                if (opened.get() >= target) {
+                    return;
+                }
+                PooledConnection pc = open();
+                idle.push(pc);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    public Lease borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("interrupted while waiting for connection");
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTransientConnectionException(
+                    "connection pool exhausted (max=" + maxSize + ", waited " + maxWaitMillis + "ms)");
+        }
+
+        try {
+            PooledConnection pc = takeIdle();
+            if (pc == null) {
+                pc = open();
+            }
+            borrowCount.increment();
+            active.incrementAndGet();
+            return new Lease(pc);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pc;
+        while ((pc = idle.poll()) != null) {
+            long idleMillis = System.currentTimeMillis() - pc.lastUsedAt;
+            if (idleMillis < validateAfterMillis || isValid(pc)) {
+                return pc;
+            }
+            discard(pc);
+        }
+        return null;
+    }
+
+    private static boolean isValid(PooledConnection pc) {
+        try {
+            return pc.connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, user, password);
+        opened.incrementAndGet();
+        return new PooledConnection(conn, statementCacheSize);
+    }
+
+    private void release(PooledConnection pc, boolean broken) {
+        active.decrementAndGet();
+        try {
+            if (closed || broken || pc.connection.isClosed()) {
+                discard(pc);
+            } else {
+                pc.lastUsedAt = System.currentTimeMillis();
+                idle.push(pc);
+            }
+        } catch (SQLException e) {
+            discard(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pc) {
+        opened.decrementAndGet();
+        pc.closeQuietly();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pc;
+        while ((pc = idle.poll()) != null) {
+            discard(pc);
+        }
+    }
+
+    // ==== METRICS GETTERS ==== //
+
+    public int getMaxSize() { return maxSize; }
+    public int getActiveCount() { return active.get(); }
+    public int getIdleCount() { return idle.size(); }
+    public int getOpenCount() { return opened.get(); }
+    public long getBorrowCount() { return borrowCount.sum(); }
+    public long getTimeoutCount() { return timeoutCount.sum(); }
+    public long getTotalWaitNanos() { return totalWaitNanos.sum(); }
+    public long getMaxWaitNanos() { return maxWaitNanos.get(); }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.sum() + timeoutCount.sum();
+        return borrows == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / borrows;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPool[active=" + getActiveCount()
+                + ", idle=" + getIdleCount()
+                + ", open=" + getOpenCount()
+                + ", borrows=" + getBorrowCount()
+                + ", timeouts=" + getTimeoutCount()
+                + ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis())
+                + ", maxWaitMs=" + String.format("%.3f", getMaxWaitNanos() / 1_000_000.0)
+                + "]";
+    }
+
+    // ========= 풀에 들어가는 커넥션 / 대여 핸들 =========
+
+    private static final class PooledConnection {
+        final Connection connection;
+        final Map<String, PreparedStatement> statements;
+        volatile long lastUsedAt = System.currentTimeMillis();
+
+        PooledConnection(Connection connection, int cacheSize) {
+            this.connection = connection;
+            // access-order LinkedHashMap 으로 LRU, 넘치면 가장 오래된 Statement 를 닫는다
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > cacheSize) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        void closeQuietly() {
+            Iterator<PreparedStatement> it = statements.values().iterator();
+            while (it.hasNext()) {
+                closeQuietly(it.next());
+                it.remove();
+            }
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // 이미 끊어진 커넥션
+            }
+        }
+
+        static void closeQuietly(PreparedStatement ps) {
+            try {
+                ps.close();
+            } catch (SQLException ignored) {
+                // 무시
+            }
+        }
+    }
+
+    /*
+    대여한 커넥션 핸들. try-with-resources 로 사용하며 close() 시 풀에 반납된다.
+    prepare() 로 받은 PreparedStatement 는 캐시에 남으므로 호출자가 닫지 않는다.
+     */
+    public final class Lease implements AutoCloseable {
+        private final PooledConnection pc;
+        private boolean broken;
+        private boolean released;
+
+        private Lease(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        public Connection connection() {
+            return pc.connection;
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            return prepare(sql, java.sql.Statement.NO_GENERATED_KEYS);
+        }
+
+        public PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys + ":" + sql;
+            PreparedStatement ps = pc.statements.get(key);
+            if (ps == null || ps.isClosed()) {
+                ps = pc.connection.prepareStatement(sql, autoGeneratedKeys);
+                pc.statements.put(key, ps);
+            } else {
+                ps.clearParameters();
+            }
+            return ps;
+        }
+
+        // SQL 오류로 커넥션 상태를 믿을 수 없을 때 호출하면 반납 대신 폐기된다
+        public void invalidate() {
+            broken = true;
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            release(pc, broken);
+        }
+    }
+}
@@ -1,41 +1,70 @@
 package com.tech.basic;
 
-import java.sql.*;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+/*
+테이블 목록 출력 + 내보내기 도구 (TableExporter)
+설정은 -Dexport.* 시스템 속성으로 준다
+ - export.url / export.user / export.password : 기본은 서버와 같은 MariaDB, jdbc:h2:... 도 가능
+ - export.tables   : 쉼표로 구분, * 이면 전체, 비우면 목록만 출력 (기본 users)
+ - export.format   : ndjson | csv
+ - export.dir      : 출력 디렉터리 (기본 export)
+ - export.threads  : 병렬 커넥션 수, export.chunkRows : 구간당 행 수, export.fetchSize : 한 번에 받아 올 행 수
+ - export.exclude  : 내보내지 않을 컬럼 (기본 password - 해시라도 파일로 돌아다니지 않게)
+ - export.progressSeconds : 진행 상황 출력 주기
+ */
 public class DbExample {
-    public static void main(String[] args) {
-        String url = "jdbc:mariadb://localhost:3379/sql_db";
-        String user = "root";
-        String pw = "SqlDba-1";
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("export.url", "jdbc:mariadb://localhost:3379/sql_db");
+        String user = System.getProperty("export.user", "root");
+        String pw = System.getProperty("export.password", "SqlDba-1");
 
-        String sql = "SHOW TABLES";
+        String tables = System.getProperty("export.tables", "users");
+        TableExporter.Format format = TableExporter.Format.valueOf(
+                System.getProperty("export.format", "ndjson").toUpperCase(Locale.ROOT));
+        Path dir = Path.of(System.getProperty("export.dir", "export"));
+        int threads = Integer.getInteger("export.threads", 4);
+        long chunkRows = Long.getLong("export.chunkRows", 100_000);
+        int fetchSize = Integer.getInteger("export.fetchSize", 1000);
+        Set<String> exclude = Arrays.stream(System.getProperty("export.exclude", "password").split(","))
+                .map(s -> s.trim().toLowerCase(Locale.ROOT))
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+        long progressMillis = Long.getLong("export.progressSeconds", 5) * 1000;
 
-        try (Connection conn = DriverManager.getConnection(url, user, pw);
-             PreparedStatement ps = conn.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
+        try (ConnectionPool pool = new ConnectionPool(url, user, pw, threads)) {
+            TableExporter exporter = new TableExporter(pool, dir, format, fetchSize, threads, chunkRows,
+                    exclude, progressMillis);
 
             System.out.println("=== TABLES ===");
-            while (rs.next()) {
-                System.out.println(rs.getString(1)); // 테이블명
+            List<String> all = exporter.listTables();
+            for (String t : all) {
+                System.out.println(t); // 테이블명
             }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+            List<String> targets = "*".equals(tables) ? all : Arrays.stream(tables.split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .toList();
+            for (String t : targets) {
+                TableExporter.Result r = exporter.export(t);
+                double secs = r.nanos() / 1e9;
+                System.out.printf("=== %s -> %s : %,d rows, %d chunks, %.1fs (%,.0f rows/s)%n",
+                        r.table(), r.file(), r.rows(), r.chunks(), secs, r.rows() / secs);
+            }
         }
     }
 }
 
 /*
 
-build.gradle 파일에 다음 설정을 추가, 이는 DbExample.java 예제 개별 실행을 위한 작업
-
-tasks.register('runDbExample', JavaExec) {
-    classpath = sourceSets.main.runtimeClasspath
-    mainClass = 'com.tech.basic.DbExample'
-}
-
-이어서 다음 명령으로 실행
+build.gradle 의 runDbExample 태스크로 실행, -Dexport.* 는 그대로 전달된다
 
-./gradlew :app:runDbExample
+./gradlew :app:runDbExample -Dexport.tables=users -Dexport.format=csv -Dexport.threads=8
 
-*/
\ No newline at end of file
+*/
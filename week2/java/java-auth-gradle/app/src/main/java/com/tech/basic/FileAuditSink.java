@@ -0,0 +1,119 @@
+package com.tech.basic;
+
+import com.tech.basic.AuditLog.Event;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+감사 로그 파일 Sink: 한 줄에 이벤트 하나(JSON), 덧붙이기만 한다
+ - 세그먼트: audit-00000000000000000001.log, ...2.log ... (번호 순 = 시간 순)
+   현재 세그먼트가 segmentBytes 를 넘으면 새 번호로 넘어가고, 지난 파일은 다시 열지 않는다
+ - maxSegments 개를 넘으면 가장 오래된 세그먼트부터 지운다 (0 = 지우지 않음)
+ - 배치 하나를 버퍼 하나로 만들어 write 한 번, fsync=true 면 배치마다 force (전원 장애까지 대비)
+재시작하면 남아 있는 가장 큰 번호 다음 세그먼트부터 쓴다.
+ */
+public class FileAuditSink implements AuditLog.Sink {
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final int maxSegments;
+    private final boolean fsync;
+    private final StringBuilder line = new StringBuilder(256);
+    private FileChannel channel;
+    private long segment;
+    private long segmentSize;
+
+    public FileAuditSink(Path dir, long segmentBytes, int maxSegments, boolean fsync) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.fsync = fsync;
+        Files.createDirectories(dir);
+        List<Long> existing = segments();
+        segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+        openNext();
+    }
+
+    @Override
+    public void write(List<Event> batch) throws IOException {
+        line.setLength(0);
+        for (Event e : batch) {
+            line.append("{\"ts\":\"").append(Instant.ofEpochMilli(e.timeMillis()))
+                    .append("\",\"type\":\"").append(e.type())
+                    .append("\",\"username\":");
+            SimpleAuthServer.appendJsonString(line, e.username());
+            line.append(",\"userId\":").append(e.userId()).append(",\"ip\":");
+            SimpleAuthServer.appendJsonString(line, e.clientIp());
+            line.append(",\"reason\":");
+            SimpleAuthServer.appendJsonString(line, e.reason());
+            line.append("}\n");
+        }
+        ByteBuffer buf = StandardCharsets.UTF_8.encode(CharBuffer.wrap(line));
+        int size = buf.remaining();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+        segmentSize += size;
+        if (segmentSize >= segmentBytes) {
+            channel.close();
+            openNext();
+        }
+    }
+
+    private void openNext() throws IOException {
+        segment++;
+        channel = FileChannel.open(dir.resolve(String.format("%s%020d%s", PREFIX, segment, SUFFIX)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentSize = 0;
+        if (maxSegments > 0) {
+            List<Long> all = segments();
+            for (int i = 0; i < all.size() - maxSegments; i++) {
+                Files.deleteIfExists(dir.resolve(String.format("%s%020d%s", PREFIX, all.get(i), SUFFIX)));
+            }
+        }
+    }
+
+    // 오름차순 세그먼트 번호
+    private List<Long> segments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : files) {
+                String name = p.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException ignore) {
+                    // 다른 파일
+                }
+            }
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    public long getSegment() { return segment; }
+
+    @Override
+    public void close() throws IOException {
+        if (fsync) {
+            channel.force(false);
+        }
+        channel.close();
+    }
+}
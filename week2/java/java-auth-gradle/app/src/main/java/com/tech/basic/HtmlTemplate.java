@@ -0,0 +1,280 @@
+package com.tech.basic;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/*
+미리 컴파일한 HTML 템플릿 (로그인 뒤 동적 페이지용: /home, /index)
+ - 기동 시 한 번 {{name}} 자리를 기준으로 잘라서 고정 부분은 UTF-8 byte[] 조각, 자리는 값 번호로 만들어 둔다
+ - 요청 처리 시에는 값만 HTML 이스케이프 + UTF-8 인코딩을 한 번에(single pass) 해서
+   Content-Length 를 계산하고, 고정 조각은 복사 없이 그대로 getResponseBody() 에 쓴다 (중간 String 없음)
+ - gzip: 고정 조각을 기동 시 raw deflate 로 따로 압축해 두고(SYNC_FLUSH 로 바이트 경계에서 끝남)
+   요청 시에는 값만 stored(무압축) 블록으로 끼워 넣는다. CRC32 만 요청마다 원본 바이트로 계산한다.
+자리 이름은 load 에 넘긴 순서대로 render 의 값과 짝지어진다. 모르는 이름이 있으면 기동 시 실패한다.
+ */
+public final class HtmlTemplate {
+
+    // gzip 헤더 (CM=deflate, MTIME=0, OS=unknown) 와 마지막 빈 stored 블록(BFINAL=1)
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final byte[] DEFLATE_END = {1, 0, 0, (byte) 0xff, (byte) 0xff};
+    private static final int GZIP_TRAILER = 8;
+    private static final int STORED_MAX = 65535;
+
+    private final String name;
+    // 조각 i 다음에 값 slots[i] 가 온다 (마지막 조각 뒤에는 없음): segments.length == slots.length + 1
+    private final byte[][] segments;
+    private final byte[][] deflated;
+    private final int[] slots;
+    private final int valueCount;
+    private final long staticLength;
+    private final long staticDeflatedLength;
+
+    private HtmlTemplate(String name, byte[][] segments, int[] slots, int valueCount) {
+        this.name = name;
+        this.segments = segments;
+        this.slots = slots;
+        this.valueCount = valueCount;
+        this.deflated = new byte[segments.length][];
+        long plain = 0;
+        long compressed = 0;
+        for (int i = 0; i < segments.length; i++) {
+            deflated[i] = deflate(segments[i]);
+            plain += segments[i].length;
+            compressed += deflated[i].length;
+        }
+        this.staticLength = plain;
+        this.staticDeflatedLength = compressed;
+    }
+
+    public static HtmlTemplate load(ClassLoader loader, String resourcePath, String... slotNames) throws IOException {
+        try (InputStream is = loader.getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                throw new IOException("template not found: " + resourcePath);
+            }
+            return compile(resourcePath, new String(is.readAllBytes(), StandardCharsets.UTF_8), slotNames);
+        }
+    }
+
+    static HtmlTemplate compile(String name, String source, String... slotNames) {
+        List<byte[]> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int open = source.indexOf("{{", from);
+            if (open < 0) break;
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException(name + ": unclosed {{ at " + open);
+            }
+            String slot = source.substring(open + 2, close).trim();
+            int index = Arrays.asList(slotNames).indexOf(slot);
+            if (index < 0) {
+                throw new IllegalArgumentException(name + ": unknown slot {{" + slot + "}}");
+            }
+            segments.add(source.substring(from, open).getBytes(StandardCharsets.UTF_8));
+            slots.add(index);
+            from = close + 2;
+        }
+        segments.add(source.substring(from).getBytes(StandardCharsets.UTF_8));
+        return new HtmlTemplate(name, segments.toArray(new byte[0][]),
+                slots.stream().mapToInt(Integer::intValue).toArray(), slotNames.length);
+    }
+
+    /*
+    200 응답으로 렌더링. values 는 load 에 넘긴 자리 이름 순서, null 은 빈 문자열
+    Accept-Encoding 에 gzip 이 있으면 미리 압축한 조각으로 보낸다 (내용이 사용자마다 달라 ETag 는 없다)
+     */
+    public void render(HttpExchange exchange, String cacheControl, String... values) throws IOException {
+        byte[][] escaped = escapeAll(values);
+        boolean gzip = StaticResourceCache.acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        var headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "text/html; charset=utf-8");
+        headers.set("Cache-Control", cacheControl);
+        headers.set("Vary", "Accept-Encoding");
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, gzip ? gzipLength(escaped) : length(escaped));
+        try (OutputStream os = exchange.getResponseBody()) {
+            if (gzip) {
+                writeGzip(os, escaped);
+            } else {
+                write(os, escaped);
+            }
+        }
+    }
+
+    // 응답 없이 같은 경로를 돌린다 (warm-up 용)
+    void renderTo(OutputStream os, boolean gzip, String... values) throws IOException {
+        byte[][] escaped = escapeAll(values);
+        if (gzip) {
+            writeGzip(os, escaped);
+        } else {
+            write(os, escaped);
+        }
+    }
+
+    private byte[][] escapeAll(String... values) {
+        if (values.length != valueCount) {
+            throw new IllegalArgumentException(name + ": expected " + valueCount + " values, got " + values.length);
+        }
+        byte[][] escaped = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            escaped[i] = escapeHtml(values[i]);
+        }
+        return escaped;
+    }
+
+    private long length(byte[][] escaped) {
+        long n = staticLength;
+        for (int slot : slots) {
+            n += escaped[slot].length;
+        }
+        return n;
+    }
+
+    private long gzipLength(byte[][] escaped) {
+        long n = GZIP_HEADER.length + staticDeflatedLength + DEFLATE_END.length + GZIP_TRAILER;
+        for (int slot : slots) {
+            int len = escaped[slot].length;
+            // stored 블록마다 헤더 1 + LEN 2 + NLEN 2
+            n += len + 5L * ((len + STORED_MAX - 1) / STORED_MAX);
+        }
+        return n;
+    }
+
+    private void write(OutputStream os, byte[][] escaped) throws IOException {
+        for (int i = 0; i < slots.length; i++) {
+            os.write(segments[i]);
+            os.write(escaped[slots[i]]);
+        }
+        os.write(segments[slots.length]);
+    }
+
+    private void writeGzip(OutputStream os, byte[][] escaped) throws IOException {
+        CRC32 crc = new CRC32();
+        long size = 0;
+        os.write(GZIP_HEADER);
+        byte[] storedHeader = new byte[5];
+        for (int i = 0; i <= slots.length; i++) {
+            os.write(deflated[i]);
+            crc.update(segments[i]);
+            size += segments[i].length;
+            if (i == slots.length) break;
+            byte[] value = escaped[slots[i]];
+            for (int off = 0; off < value.length; off += STORED_MAX) {
+                int len = Math.min(STORED_MAX, value.length - off);
+                storedHeader[0] = 0; // BFINAL=0, BTYPE=00 (앞 조각이 SYNC_FLUSH 로 바이트 경계에서 끝남)
+                storedHeader[1] = (byte) len;
+                storedHeader[2] = (byte) (len >>> 8);
+                storedHeader[3] = (byte) ~len;
+                storedHeader[4] = (byte) (~len >>> 8);
+                os.write(storedHeader);
+                os.write(value, off, len);
+            }
+            crc.update(value);
+            size += value.length;
+        }
+        os.write(DEFLATE_END);
+        long c = crc.getValue();
+        os.write(new byte[]{(byte) c, (byte) (c >>> 8), (byte) (c >>> 16), (byte) (c >>> 24),
+                (byte) size, (byte) (size >>> 8), (byte) (size >>> 16), (byte) (size >>> 24)});
+    }
+
+    // raw deflate (헤더/트레일러 없음), BFINAL 없이 SYNC_FLUSH 로 끝내서 뒤에 다른 블록을 이어 붙일 수 있다
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(9, true);
+        try {
+            deflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            byte[] buf = new byte[4096];
+            int n;
+            do {
+                n = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+                out.write(buf, 0, n);
+            } while (n == buf.length || !deflater.needsInput());
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /*
+    HTML 이스케이프(& < > " ') 와 UTF-8 인코딩을 한 번에: 길이를 먼저 세고 정확한 크기의 배열에 채운다
+    (replace 를 다섯 번 이어 부르면 문자열을 다섯 번 복사한다)
+     */
+    static byte[] escapeHtml(String s) {
+        if (s == null) return new byte[0];
+        int len = s.length();
+        int n = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                n += switch (c) {
+                    case '&' -> 5;
+                    case '<', '>' -> 4;
+                    case '"' -> 6;
+                    case '\'' -> 5;
+                    default -> 1;
+                };
+            } else if (c < 0x800) {
+                n += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                n += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                n += 1; // 짝 없는 surrogate 는 '?' (String.getBytes(UTF_8) 와 같은 결과)
+            } else {
+                n += 3;
+            }
+        }
+        byte[] out = new byte[n];
+        int p = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                String entity = switch (c) {
+                    case '&' -> "&amp;";
+                    case '<' -> "&lt;";
+                    case '>' -> "&gt;";
+                    case '"' -> "&quot;";
+                    case '\'' -> "&#39;";
+                    default -> null;
+                };
+                if (entity == null) {
+                    out[p++] = (byte) c;
+                } else {
+                    for (int k = 0; k < entity.length(); k++) {
+                        out[p++] = (byte) entity.charAt(k);
+                    }
+                }
+            } else if (c < 0x800) {
+                out[p++] = (byte) (0xc0 | (c >> 6));
+                out[p++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out[p++] = (byte) (0xf0 | (cp >> 18));
+                out[p++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                out[p++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                out[p++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                out[p++] = '?';
+            } else {
+                out[p++] = (byte) (0xe0 | (c >> 12));
+                out[p++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                out[p++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return out;
+    }
+}
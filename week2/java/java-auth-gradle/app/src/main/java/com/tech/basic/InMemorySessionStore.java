@@ -0,0 +1,119 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+만료 시간과 최대 개수가 있는 메모리 세션 저장소
+ - idle 타임아웃: 마지막 접근 후 idleMillis 가 지나면 만료 (get 할 때마다 연장 = sliding expiry)
+ - absolute 타임아웃: 로그인 후 absoluteMillis 가 지나면 접근 여부와 관계없이 만료
+ - maxEntries 를 넘으면 가장 오래 접근하지 않은 세션부터 제거 (LRU)
+
+SegmentedLruCache 는 세그먼트마다 access-order 라 맨 앞이 항상 가장 오래 쉰 세션이다.
+만료 정리는 맨 앞에서 만료된 것만 떼어내고 멈추므로 전체 스캔이 필요 없다.
+ */
+public class InMemorySessionStore implements SessionStore, AutoCloseable {
+
+    private final long idleMillis;
+    private final long absoluteMillis;
+    private final SegmentedLruCache<String, Entry> sessions;
+    private final ScheduledExecutorService sweeper;
+
+    // ==== METRICS ==== //
+    private final LongAdder expirations = new LongAdder(); // 타임아웃으로 제거 (용량 초과 제거는 sessions 가 센다)
+
+    public InMemorySessionStore(long idleMillis, long absoluteMillis, int maxEntries, long sweepIntervalMillis) {
+        this.idleMillis = idleMillis;
+        this.absoluteMillis = absoluteMillis;
+        this.sessions = new SegmentedLruCache<>(maxEntries);
+        if (sweepIntervalMillis > 0) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "session-sweeper");
+                t.setDaemon(true);
+                return t;
+            });
+            sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    @Override
+    public void put(String sessionId, User user) {
+        long now = System.currentTimeMillis();
+        expirations.add(sessions.expireHead(sessionId, e -> isIdle(e, now)));
+        sessions.put(sessionId, new Entry(user, now));
+    }
+
+    @Override
+    public User get(String sessionId) {
+        long now = System.currentTimeMillis();
+        Entry e = sessions.get(sessionId); // access-order 이므로 맨 뒤로 이동
+        if (e == null) {
+            return null;
+        }
+        if (isExpired(e, now)) {
+            if (sessions.remove(sessionId, e)) {
+                expirations.increment();
+            }
+            return null;
+        }
+        e.lastAccessAt = now;
+        return e.user;
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    @Override
+    public int size() {
+        return sessions.size();
+    }
+
+    // 맨 앞(가장 오래 쉰 세션)부터 idle 만료된 것만 제거하고, 만료되지 않은 세션을 만나면 멈춘다.
+    // absolute 만료는 get() 에서 걸러지고, 접근이 끊기면 결국 idle 만료로 여기서 정리된다.
+    private boolean isIdle(Entry e, long now) {
+        return now - e.lastAccessAt >= idleMillis;
+    }
+
+    private boolean isExpired(Entry e, long now) {
+        return now - e.lastAccessAt >= idleMillis || now - e.createdAt >= absoluteMillis;
+    }
+
+    // 백그라운드 정리: 세그먼트마다 맨 앞의 만료 세션만 제거
+    void sweep() {
+        long now = System.currentTimeMillis();
+        expirations.add(sessions.expireHeads(e -> isIdle(e, now)));
+    }
+
+    public int getMaxEntries() { return sessions.getMaxSize(); }
+    public long getEvictionCount() { return sessions.getEvictionCount(); }
+    public long getExpirationCount() { return expirations.sum(); }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    // ========= 내부 구조 =========
+
+    private static final class Entry {
+        final User user;
+        final long createdAt;
+        volatile long lastAccessAt; // get() 은 세그먼트 락 밖에서 갱신한다
+
+        Entry(User user, long now) {
+            this.user = user;
+            this.createdAt = now;
+            this.lastAccessAt = now;
+        }
+    }
+}
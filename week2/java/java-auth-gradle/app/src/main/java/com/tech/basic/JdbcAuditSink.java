@@ -0,0 +1,137 @@
+package com.tech.basic;
+
+import com.tech.basic.AuditLog.Event;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/*
+감사 로그 JDBC Sink: 배치 하나를 INSERT 배치 + 커밋 한 번으로 쓴다
+전용 ConnectionPool(보통 크기 1)을 받아 로그인 요청이 쓰는 풀과 커넥션을 다투지 않는다.
+문자열은 컬럼 길이에 맞춰 자른다 (username 은 요청에서 온 값이라 길이 제한이 없다).
+그래도 배치가 실패하면 한 행씩 다시 넣어 문제 행만 버린다 (한 행 때문에 배치 전체를 잃지 않도록).
+
+CREATE TABLE IF NOT EXISTS login_audit (
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    created_at TIMESTAMP(3) NOT NULL,
+    event      VARCHAR(32)  NOT NULL,
+    username   VARCHAR(255),
+    user_id    BIGINT,
+    client_ip  VARCHAR(45),
+    reason     VARCHAR(64)
+)
+ */
+public class JdbcAuditSink implements AuditLog.Sink {
+
+    static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS login_audit ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, created_at TIMESTAMP(3) NOT NULL, event VARCHAR(32) NOT NULL, "
+            + "username VARCHAR(255), user_id BIGINT, client_ip VARCHAR(45), reason VARCHAR(64))";
+    private static final String INSERT_SQL =
+            "INSERT INTO login_audit (created_at, event, username, user_id, client_ip, reason) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // 컬럼 길이 (문자 수)
+    private static final int EVENT_LEN = 32;
+    private static final int USERNAME_LEN = 255;
+    private static final int CLIENT_IP_LEN = 45;
+    private static final int REASON_LEN = 64;
+
+    private final ConnectionPool pool;
+
+    public JdbcAuditSink(ConnectionPool pool) throws SQLException {
+        this.pool = pool;
+        try (ConnectionPool.Lease lease = pool.borrow();
+             Statement st = lease.connection().createStatement()) {
+            st.execute(CREATE_TABLE_SQL);
+        }
+    }
+
+    @Override
+    public void write(List<Event> batch) throws Exception {
+        SQLException batchError;
+        try (ConnectionPool.Lease lease = pool.borrow()) {
+            boolean autoCommit = lease.connection().getAutoCommit();
+            try {
+                lease.connection().setAutoCommit(false);
+                PreparedStatement ps = lease.prepare(INSERT_SQL);
+                for (Event e : batch) {
+                    bind(ps, e);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                lease.connection().commit();
+                lease.connection().setAutoCommit(autoCommit);
+                return;
+            } catch (SQLException e) {
+                lease.invalidate(); // 롤백 상태를 믿지 않고 커넥션을 버린다
+                batchError = e;
+            }
+        }
+        if (batch.size() == 1 || isConnectionError(batchError)) {
+            throw batchError;
+        }
+        writeOneByOne(batch, batchError);
+    }
+
+    // 행마다 autocommit INSERT: 실패한 행만 버리고 나머지는 저장한다
+    private void writeOneByOne(List<Event> batch, SQLException batchError) throws Exception {
+        int failedRows = 0;
+        SQLException last = batchError;
+        try (ConnectionPool.Lease lease = pool.borrow()) {
+            lease.connection().setAutoCommit(true);
+            PreparedStatement ps = lease.prepare(INSERT_SQL);
+            for (Event e : batch) {
+                try {
+                    bind(ps, e);
+                    ps.executeUpdate();
+                } catch (SQLException rowError) {
+                    if (isConnectionError(rowError)) {
+                        lease.invalidate();
+                        throw rowError;
+                    }
+                    failedRows++;
+                    last = rowError;
+                }
+            }
+        }
+        if (failedRows > 0) {
+            throw new AuditLog.PartialWriteException(failedRows, batch.size(), last);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Event e) throws SQLException {
+        ps.setTimestamp(1, new Timestamp(e.timeMillis()));
+        ps.setString(2, fit(e.type().name(), EVENT_LEN));
+        ps.setString(3, fit(e.username(), USERNAME_LEN));
+        if (e.userId() > 0) {
+            ps.setLong(4, e.userId());
+        } else {
+            ps.setNull(4, Types.BIGINT);
+        }
+        ps.setString(5, fit(e.clientIp(), CLIENT_IP_LEN));
+        ps.setString(6, fit(e.reason(), REASON_LEN));
+    }
+
+    // 최대 max 문자(code point)로 자른다. surrogate 쌍은 나누지 않는다
+    static String fit(String s, int max) {
+        if (s == null || s.length() <= max) {
+            return s;
+        }
+        int end = s.offsetByCodePoints(0, Math.min(max, s.codePointCount(0, s.length())));
+        return s.substring(0, end);
+    }
+
+    // SQLState 08xxx: 연결 자체가 문제면 한 행씩 다시 해도 소용없다
+    private static boolean isConnectionError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
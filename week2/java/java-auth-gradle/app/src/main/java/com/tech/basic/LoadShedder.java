@@ -0,0 +1,151 @@
+package com.tech.basic;
+
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+요청 대기 시간 기반 부하 차단, CoDel 방식 + 비싼 요청 동시 실행 제한(우선순위)
+ - 비싼 요청(sheddable)은 executor 다음에 한 번 더 줄을 선다: 동시에 maxExpensive 개까지만 실행
+   -> 싼 요청(정적 파일, 로그인 페이지)은 이 줄을 서지 않으므로 BCrypt 요청 뒤에서 기다리지 않는다
+      (platform 모드에서는 나머지 worker 스레드가 싼 요청 몫으로 남는다)
+   -> executor 에 큐가 없는 virtual/hybrid 모드에서도 이 줄이 CoDel 이 보는 큐가 된다
+ - 대기 시간 = executor 큐 대기 + 이 줄에서 기다린 시간
+ - 평소에는 interval 까지 기다린 요청도 처리한다 (순간적인 몰림은 큐가 흡수)
+ - 대기 시간이 interval 동안 한 번도 target 아래로 내려가지 않았다면 "큐가 줄지 않는" 과부하 상태:
+   이때는 target 보다 오래 기다린 비싼 요청을 바로 503 으로 돌려보낸다 (그 이상 기다리지 않는다)
+ - 대기 시간은 비싼 요청의 것만 본다: 싼 요청은 차단하지도 관측하지도 않는다
+   (virtual/hybrid 모드에서 싼 요청의 대기는 늘 0 이라, 섞어 보면 비싼 요청이 밀려도 과부하로 보이지 않는다)
+ - 비싼 요청이 interval 넘게 없었다면 그 사이 큐는 비어 있었던 것: 과부하가 아니고, 다음 관측부터 다시 잰다
+이미 늦은 요청에 BCrypt/DB 를 쓰지 않으므로 과부하에서도 큐가 빨리 비고 지연이 target 근처로 돌아온다.
+ */
+public class LoadShedder {
+
+    private static final byte[] BODY = "Service Unavailable".getBytes(StandardCharsets.UTF_8);
+
+    private final long targetNanos;
+    private final long intervalNanos;
+    // 비싼 요청 동시 실행 허가 (FIFO), null 이면 제한 없음
+    private final Semaphore expensive;
+    private final int maxExpensive;
+    // 마지막으로 대기 시간이 target 아래였던 시각
+    private volatile long lastBelowTarget = System.nanoTime();
+    // 마지막으로 비싼 요청의 대기 시간을 관측한 시각
+    private volatile long lastObserved = System.nanoTime();
+
+    // ==== METRICS ==== //
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder admitted = new LongAdder();
+
+    // 동시 실행 제한 없음: executor 큐 대기만 본다
+    public LoadShedder(long targetNanos, long intervalNanos) {
+        this(targetNanos, intervalNanos, 0);
+    }
+
+    // maxExpensive <= 0 이면 제한 없음
+    public LoadShedder(long targetNanos, long intervalNanos, int maxExpensive) {
+        this.targetNanos = targetNanos;
+        this.intervalNanos = intervalNanos;
+        this.maxExpensive = maxExpensive;
+        this.expensive = maxExpensive > 0 ? new Semaphore(maxExpensive, true) : null;
+    }
+
+    // queueNanos: 이 요청이 큐에서 기다린 시간. true 면 처리, false 면 차단 (싼 요청은 관측 없이 통과)
+    public boolean admit(long queueNanos, boolean sheddable) {
+        if (!sheddable) {
+            return true;
+        }
+        observe(queueNanos);
+        if (queueNanos > allowedWaitNanos()) {
+            shed.increment();
+            return false;
+        }
+        admitted.increment();
+        return true;
+    }
+
+    /*
+    비싼 요청: 허가를 얻으면 true (끝나면 release 필수), 허용 대기 시간 안에 못 얻으면 false
+    허용 대기 시간에서 executor 큐에서 이미 기다린 queueNanos 를 뺀 만큼만 기다린다
+     */
+    boolean acquire(long queueNanos) throws InterruptedException {
+        if (expensive == null) {
+            return admit(queueNanos, true);
+        }
+        long budget = allowedWaitNanos() - queueNanos;
+        long start = System.nanoTime();
+        boolean ok = budget >= 0 && expensive.tryAcquire(budget, TimeUnit.NANOSECONDS);
+        observe(queueNanos + (System.nanoTime() - start));
+        if (ok) {
+            admitted.increment();
+        } else {
+            shed.increment();
+        }
+        return ok;
+    }
+
+    void release() {
+        if (expensive != null) {
+            expensive.release();
+        }
+    }
+
+    private void observe(long waitedNanos) {
+        long now = System.nanoTime();
+        if (waitedNanos < targetNanos || now - lastObserved > intervalNanos) {
+            lastBelowTarget = now;
+        }
+        lastObserved = now;
+    }
+
+    private long allowedWaitNanos() {
+        return isOverloaded() ? targetNanos : intervalNanos;
+    }
+
+    // 큐 대기 시간은 Metrics.queueTimed 로 감싼 executor 에서 잰 값을 쓴다
+    public HttpHandler guard(boolean sheddable, HttpHandler handler) {
+        return exchange -> {
+            long queueNanos = Metrics.currentQueueWaitNanos();
+            if (!sheddable) {
+                handler.handle(exchange);
+                return;
+            }
+            boolean acquired;
+            try {
+                acquired = acquire(queueNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (acquired) {
+                try {
+                    handler.handle(exchange);
+                } finally {
+                    release();
+                }
+                return;
+            }
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(503, BODY.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(BODY);
+            }
+        };
+    }
+
+    public boolean isOverloaded() {
+        long now = System.nanoTime();
+        return now - lastBelowTarget > intervalNanos && now - lastObserved <= intervalNanos;
+    }
+
+    // 지금 허가를 기다리는 비싼 요청 수 (추정치)
+    public int getExpensiveWaiting() { return expensive == null ? 0 : expensive.getQueueLength(); }
+    public int getExpensiveRunning() { return expensive == null ? 0 : maxExpensive - expensive.availablePermits(); }
+    public long getShedCount() { return shed.sum(); }
+    public long getAdmittedCount() { return admitted.sum(); }
+}
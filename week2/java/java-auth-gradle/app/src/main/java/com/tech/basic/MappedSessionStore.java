@@ -0,0 +1,420 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/*
+메모리 매핑 파일 기반 세션 저장소 (재시작해도 세션 유지)
+
+파일 = 헤더(64 bytes) + 고정 길이 슬롯(128 bytes) * capacity, 선형 탐사(open addressing) 해시 테이블
+ - 키는 UUID 세션 ID 를 두 개의 long 으로 파싱한 값 (문자열을 만들지 않음)
+ - 조회는 StampedLock 낙관적 읽기로 힙 할당 없이 슬롯을 찾는다 (findUserId)
+ - 기동 시 기존 파일의 헤더만 확인하고 그대로 붙으므로 재구성 비용이 없다 (삭제 표시 슬롯 수만 한 번 센다)
+ - 로그아웃은 슬롯을 "삭제됨"으로 남기므로(탐사 체인 유지) 사용중 + 삭제됨이 75% 를 넘으면 다시 배치한다
+   삭제됨을 세지 않으면 로그인/로그아웃이 반복될 때 빈칸이 사라져 없는 ID 조회가 테이블 전체를 훑는다
+
+슬롯 레이아웃
+  0  int   state (0 빈칸, 1 사용중, 2 삭제됨)
+  8  long  session id 상위 64bit
+  16 long  session id 하위 64bit
+  24 long  user id
+  32 long  createdAt (epoch ms)
+  40 long  expiresAt (epoch ms, idle 연장 반영)
+  48 16B   role (UTF-8, 0 으로 채움)
+  64 64B   username (UTF-8, 0 으로 채움)
+ */
+public class MappedSessionStore implements SessionStore, AutoCloseable {
+
+    private static final int MAGIC = 0x53455353; // "SESS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 128;
+
+    private static final int EMPTY = 0;
+    private static final int USED = 1;
+    private static final int DELETED = 2;
+
+    private static final int OFF_STATE = 0;
+    private static final int OFF_MSB = 8;
+    private static final int OFF_LSB = 16;
+    private static final int OFF_USER_ID = 24;
+    private static final int OFF_CREATED = 32;
+    private static final int OFF_EXPIRES = 40;
+    private static final int OFF_ROLE = 48;
+    private static final int ROLE_LEN = 16;
+    private static final int OFF_USERNAME = 64;
+    private static final int USERNAME_LEN = 64;
+
+    // 헤더: magic, version, capacity, count
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_CAPACITY = 8;
+    private static final int H_COUNT = 12;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buf;
+    private final int capacity;
+    private final int mask;
+    private final int maxLoad;
+    private final long idleMillis;
+    private final long absoluteMillis;
+    private final StampedLock lock = new StampedLock();
+    // 삭제됨(DELETED) 슬롯 수, 쓰기 락 안에서만 바뀐다 (헤더에는 없고 기동 시 센다)
+    private int tombstones;
+
+    public MappedSessionStore(Path file, int capacity, long idleMillis, long absoluteMillis) throws IOException {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.idleMillis = idleMillis;
+        this.absoluteMillis = absoluteMillis;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = HEADER_SIZE + (long) SLOT_SIZE * capacity;
+        boolean existing = channel.size() >= HEADER_SIZE;
+        this.buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+
+        if (existing && buf.getInt(H_MAGIC) == MAGIC) {
+            if (buf.getInt(H_VERSION) != VERSION) {
+                throw new IOException("unsupported session file version: " + buf.getInt(H_VERSION));
+            }
+            // 기존 파일에 그대로 붙는다 (파일에 기록된 capacity 가 우선)
+            int stored = buf.getInt(H_CAPACITY);
+            if (HEADER_SIZE + (long) SLOT_SIZE * stored > buf.capacity()) {
+                throw new IOException("corrupted session file: capacity " + stored);
+            }
+            this.capacity = stored;
+            for (int i = 0; i < stored; i++) {
+                if (buf.getInt(slotOffset(i) + OFF_STATE) == DELETED) {
+                    tombstones++;
+                }
+            }
+        } else {
+            this.capacity = capacity;
+            // MAGIC 이 없는 파일(다른 내용/초기화 중 중단)은 슬롯 영역을 0 으로 지워서 남은 바이트가 슬롯으로 읽히지 않게 한다
+            buf.put(H_MAGIC, new byte[4]);
+            byte[] zeros = new byte[SLOT_SIZE * 64];
+            long end = HEADER_SIZE + (long) SLOT_SIZE * capacity;
+            for (long off = HEADER_SIZE; off < end; off += zeros.length) {
+                buf.put((int) off, zeros, 0, (int) Math.min(zeros.length, end - off));
+            }
+            buf.putInt(H_VERSION, VERSION);
+            buf.putInt(H_CAPACITY, capacity);
+            buf.putInt(H_COUNT, 0);
+            buf.putInt(H_MAGIC, MAGIC); // 마지막에 써야 초기화 도중 죽어도 다음 기동에서 다시 초기화
+        }
+        this.mask = this.capacity - 1;
+        this.maxLoad = this.capacity / 4 * 3;
+    }
+
+    // ========= SessionStore =========
+
+    @Override
+    public void put(String sessionId, User user) {
+        long msb = parseHigh(sessionId);
+        long lsb = parseLow(sessionId);
+        if (msb == 0 && lsb == 0) {
+            throw new IllegalArgumentException("session id must be a UUID");
+        }
+        long now = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            if (count() + tombstones >= maxLoad) {
+                compact(now);
+            }
+            int reusable = -1;
+            int i = index(msb, lsb);
+            for (int probes = 0; probes < capacity; probes++, i = (i + 1) & mask) {
+                int base = slotOffset(i);
+                int state = buf.getInt(base + OFF_STATE);
+                if (state == EMPTY) {
+                    break;
+                }
+                if (state == USED && buf.getLong(base + OFF_MSB) == msb && buf.getLong(base + OFF_LSB) == lsb) {
+                    write(base, msb, lsb, user, now);
+                    return;
+                }
+                if (reusable < 0 && (state == DELETED || isExpired(base, now))) {
+                    reusable = i;
+                }
+            }
+            int target = reusable >= 0 ? reusable : i;
+            int base = slotOffset(target);
+            int previous = buf.getInt(base + OFF_STATE); // USED 면 만료된 슬롯 재사용
+            boolean wasUsed = previous == USED;
+            if (previous == DELETED) {
+                tombstones--;
+            }
+            write(base, msb, lsb, user, now);
+            if (!wasUsed) {
+                setCount(count() + 1);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public User get(String sessionId) {
+        long now = System.currentTimeMillis();
+        int slot = findSlot(sessionId, now);
+        if (slot < 0) {
+            return null;
+        }
+        int base = slotOffset(slot);
+        long stamp = lock.readLock();
+        User u;
+        long expiresAt;
+        try {
+            // 읽기 락을 잡기 전에 다른 세션으로 바뀌었을 수 있으므로 다시 확인
+            if (buf.getInt(base + OFF_STATE) != USED
+                    || buf.getLong(base + OFF_MSB) != parseHigh(sessionId)
+                    || buf.getLong(base + OFF_LSB) != parseLow(sessionId)) {
+                return null;
+            }
+            u = new User();
+            long userId = buf.getLong(base + OFF_USER_ID);
+            u.setId(userId < 0 ? null : userId);
+            u.setRole(readString(base + OFF_ROLE, ROLE_LEN));
+            u.setUsername(readString(base + OFF_USERNAME, USERNAME_LEN));
+            expiresAt = buf.getLong(base + OFF_EXPIRES);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        touch(base, sessionId, now, expiresAt);
+        return u;
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        long now = System.currentTimeMillis();
+        long stamp = lock.writeLock();
+        try {
+            int slot = probe(parseHigh(sessionId), parseLow(sessionId), now, false);
+            if (slot >= 0) {
+                buf.putInt(slotOffset(slot) + OFF_STATE, DELETED);
+                setCount(count() - 1);
+                tombstones++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return count();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // 힙 할당 없는 조회: 유효한 세션이면 user id, 없거나 만료면 -1
+    public long findUserId(CharSequence sessionId) {
+        long now = System.currentTimeMillis();
+        int slot = findSlot(sessionId, now);
+        return slot < 0 ? -1 : buf.getLong(slotOffset(slot) + OFF_USER_ID);
+    }
+
+    // ========= 내부 구현 =========
+
+    private int findSlot(CharSequence sessionId, long now) {
+        long msb = parseHigh(sessionId);
+        long lsb = parseLow(sessionId);
+        if (msb == 0 && lsb == 0) {
+            return -1;
+        }
+        long stamp = lock.tryOptimisticRead();
+        int slot = probe(msb, lsb, now, true);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                slot = probe(msb, lsb, now, true);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return slot;
+    }
+
+    private int probe(long msb, long lsb, long now, boolean skipExpired) {
+        int i = index(msb, lsb);
+        for (int probes = 0; probes < capacity; probes++, i = (i + 1) & mask) {
+            int base = slotOffset(i);
+            int state = buf.getInt(base + OFF_STATE);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == USED && buf.getLong(base + OFF_MSB) == msb && buf.getLong(base + OFF_LSB) == lsb) {
+                return skipExpired && isExpired(base, now) ? -1 : i;
+            }
+        }
+        return -1;
+    }
+
+    // sliding expiry: 남은 시간이 idle 의 90% 아래로 떨어졌을 때만 쓰기 락을 잡고 연장한다
+    private void touch(int base, CharSequence sessionId, long now, long expiresAt) {
+        if (expiresAt - now > idleMillis - idleMillis / 10) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (buf.getInt(base + OFF_STATE) == USED
+                    && buf.getLong(base + OFF_MSB) == parseHigh(sessionId)
+                    && buf.getLong(base + OFF_LSB) == parseLow(sessionId)) {
+                long created = buf.getLong(base + OFF_CREATED);
+                buf.putLong(base + OFF_EXPIRES, Math.min(now + idleMillis, created + absoluteMillis));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void write(int base, long msb, long lsb, User user, long now) {
+        buf.putLong(base + OFF_MSB, msb);
+        buf.putLong(base + OFF_LSB, lsb);
+        buf.putLong(base + OFF_USER_ID, user.getId() == null ? -1 : user.getId());
+        buf.putLong(base + OFF_CREATED, now);
+        buf.putLong(base + OFF_EXPIRES, Math.min(now + idleMillis, now + absoluteMillis));
+        writeString(base + OFF_ROLE, ROLE_LEN, user.getRole());
+        writeString(base + OFF_USERNAME, USERNAME_LEN, user.getUsername());
+        buf.putInt(base + OFF_STATE, USED);
+    }
+
+    /*
+    적재율(사용중 + 삭제됨)이 75% 를 넘으면 만료/삭제 슬롯을 비우고 남은 세션을 다시 배치한다.
+    그래도 넘치면 만료가 가까운 세션부터 버린다. (쓰기 락 안에서 호출, 드문 경로라 힙 사용 허용)
+     */
+    private void compact(long now) {
+        List<byte[]> live = new ArrayList<>();
+        for (int i = 0; i < capacity; i++) {
+            int base = slotOffset(i);
+            if (buf.getInt(base + OFF_STATE) == USED && !isExpired(base, now)) {
+                byte[] slot = new byte[SLOT_SIZE];
+                buf.get(base, slot);
+                live.add(slot);
+            }
+        }
+        int keep = maxLoad * 9 / 10;
+        if (live.size() > keep) {
+            live.sort(Comparator.comparingLong((byte[] s) -> ByteBuffer.wrap(s).getLong(OFF_EXPIRES)).reversed());
+            live = live.subList(0, keep);
+        }
+        for (int i = 0; i < capacity; i++) {
+            buf.putInt(slotOffset(i) + OFF_STATE, EMPTY);
+        }
+        for (byte[] slot : live) {
+            ByteBuffer bb = ByteBuffer.wrap(slot);
+            int i = index(bb.getLong(OFF_MSB), bb.getLong(OFF_LSB));
+            while (buf.getInt(slotOffset(i) + OFF_STATE) != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            buf.put(slotOffset(i), slot);
+        }
+        setCount(live.size());
+        tombstones = 0;
+    }
+
+    private boolean isExpired(int base, long now) {
+        return buf.getLong(base + OFF_EXPIRES) <= now;
+    }
+
+    private int count() {
+        return buf.getInt(H_COUNT);
+    }
+
+    private void setCount(int count) {
+        buf.putInt(H_COUNT, count);
+    }
+
+    private int index(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return (int) h & mask;
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    // len 바이트를 넘으면 UTF-8 문자 경계에서 자른다 (문자 중간에서 자르면 읽을 때 깨진 문자가 된다)
+    private void writeString(int offset, int len, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        int n = Math.min(bytes.length, len);
+        if (n < bytes.length) {
+            while (n > 0 && (bytes[n] & 0xC0) == 0x80) {
+                n--;
+            }
+        }
+        buf.put(offset, bytes, 0, n);
+        for (int i = n; i < len; i++) {
+            buf.put(offset + i, (byte) 0);
+        }
+    }
+
+    private String readString(int offset, int len) {
+        int n = 0;
+        while (n < len && buf.get(offset + n) != 0) {
+            n++;
+        }
+        byte[] bytes = new byte[n];
+        buf.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // "xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx" 형식을 문자열/배열 생성 없이 파싱 (형식이 아니면 0, 0)
+    static long parseHigh(CharSequence id) {
+        return isUuid(id) ? hex(id, 0, 8) << 32 | hex(id, 9, 13) << 16 | hex(id, 14, 18) : 0;
+    }
+
+    static long parseLow(CharSequence id) {
+        return isUuid(id) ? hex(id, 19, 23) << 48 | hex(id, 24, 36) : 0;
+    }
+
+    private static boolean isUuid(CharSequence id) {
+        if (id == null || id.length() != 36
+                || id.charAt(8) != '-' || id.charAt(13) != '-' || id.charAt(18) != '-' || id.charAt(23) != '-') {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            if (i != 8 && i != 13 && i != 18 && i != 23 && Character.digit(id.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hex(CharSequence s, int from, int to) {
+        long v = 0;
+        for (int i = from; i < to; i++) {
+            v = (v << 4) | Character.digit(s.charAt(i), 16);
+        }
+        return v;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buf.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,210 @@
+package com.tech.basic;
+
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/*
+요청/구간별 지표 수집 + Prometheus 텍스트 형식 출력
+ - instrument() : createContext 핸들러를 감싸 경로별 요청 수, 상태 코드, 대기 시간, 처리 시간 기록
+ - queueTimed() : 서버 executor 를 감싸 요청이 executor 에 들어간 시각을 기록 (대기 시간 계산용)
+ - phase()      : BCrypt / JDBC / JWT 서명 같은 구간 타이머
+ - gauge()      : 커넥션 풀, 세션, 캐시 등 기존 컴포넌트의 수치를 /metrics 에 노출 (이름이 _total 로 끝나면 counter)
+기록 경로는 모두 락 없음 (AtomicLongArray / LongAdder), 등록은 최초 한 번만 맵에 들어간다.
+ */
+public final class Metrics {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final Map<String, RouteStats> ROUTES = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> PHASES = new ConcurrentSkipListMap<>();
+    private static final Map<String, Gauge> GAUGES = new ConcurrentSkipListMap<>();
+    private static final Map<String, GaugeFamily> GAUGE_FAMILIES = new ConcurrentSkipListMap<>();
+
+    // [0] executor 에 들어간 시각 (핸들러가 같은 스레드에서 꺼내 쓴다), [1] 그로부터 계산한 이번 요청의 대기 시간
+    private static final ThreadLocal<long[]> ENQUEUED_AT = ThreadLocal.withInitial(() -> new long[2]);
+
+    private Metrics() {
+    }
+
+    private static final class RouteStats {
+        final LatencyHistogram service = new LatencyHistogram();
+        final LatencyHistogram queue = new LatencyHistogram();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void status(int code) {
+            LongAdder counter = statuses.get(code);
+            if (counter == null) {
+                counter = statuses.computeIfAbsent(code, c -> new LongAdder());
+            }
+            counter.increment();
+        }
+    }
+
+    private record Gauge(String help, DoubleSupplier value) {
+    }
+
+    private record GaugeFamily(String help, String label, Supplier<Map<String, ? extends Number>> values) {
+    }
+
+    // ========= 기록 =========
+
+    public static HttpHandler instrument(String route, HttpHandler handler) {
+        RouteStats stats = ROUTES.computeIfAbsent(route, r -> new RouteStats());
+        return exchange -> {
+            long start = System.nanoTime();
+            long[] enqueued = ENQUEUED_AT.get();
+            if (enqueued[0] != 0) {
+                enqueued[1] = start - enqueued[0];
+                stats.queue.record(enqueued[1]);
+                enqueued[0] = 0;
+            } else {
+                enqueued[1] = 0;
+            }
+            boolean failed = true;
+            try {
+                handler.handle(exchange);
+                failed = false;
+            } finally {
+                stats.service.record(System.nanoTime() - start);
+                int code = exchange.getResponseCode();
+                // 응답을 보내기 전에 예외가 나면 HttpServer 가 연결을 끊으므로 500 으로 센다
+                stats.status(code < 0 && failed ? 500 : code);
+            }
+        };
+    }
+
+    public static Executor queueTimed(Executor executor) {
+        return task -> {
+            long enqueued = System.nanoTime();
+            executor.execute(() -> {
+                ENQUEUED_AT.get()[0] = enqueued;
+                task.run();
+            });
+        };
+    }
+
+    // instrument() 로 감싼 핸들러 안에서: 현재 요청이 executor 큐에서 기다린 시간
+    public static long currentQueueWaitNanos() {
+        return ENQUEUED_AT.get()[1];
+    }
+
+    public static LatencyHistogram phase(String name) {
+        LatencyHistogram h = PHASES.get(name);
+        return h != null ? h : PHASES.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    public static void gauge(String name, String help, DoubleSupplier value) {
+        GAUGES.put(name, new Gauge(help, value));
+    }
+
+    // 라벨 값마다 하나씩: name{label="값"} 수치
+    public static void gaugeFamily(String name, String help, String label,
+                                   Supplier<Map<String, ? extends Number>> values) {
+        GAUGE_FAMILIES.put(name, new GaugeFamily(help, label, values));
+    }
+
+    // ========= 출력 =========
+
+    public static HttpHandler handler() {
+        return exchange -> {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        };
+    }
+
+    public static String scrape() {
+        StringBuilder sb = new StringBuilder(4096);
+
+        sb.append("# HELP http_requests_total Requests by route and status code\n");
+        sb.append("# TYPE http_requests_total counter\n");
+        for (Map.Entry<String, RouteStats> e : ROUTES.entrySet()) {
+            Map<Integer, LongAdder> sorted = new TreeMap<>(e.getValue().statuses);
+            for (Map.Entry<Integer, LongAdder> s : sorted.entrySet()) {
+                sb.append("http_requests_total{route=\"").append(escape(e.getKey()))
+                        .append("\",status=\"").append(s.getKey()).append("\"} ")
+                        .append(s.getValue().sum()).append('\n');
+            }
+        }
+
+        summaryHeader(sb, "http_request_duration_seconds", "Handler service time by route");
+        for (Map.Entry<String, RouteStats> e : ROUTES.entrySet()) {
+            summary(sb, "http_request_duration_seconds", "route", e.getKey(), e.getValue().service);
+        }
+        summaryHeader(sb, "http_request_queue_seconds", "Time between executor submit and handler start by route");
+        for (Map.Entry<String, RouteStats> e : ROUTES.entrySet()) {
+            summary(sb, "http_request_queue_seconds", "route", e.getKey(), e.getValue().queue);
+        }
+        summaryHeader(sb, "auth_phase_duration_seconds", "BCrypt / JDBC / JWT phase time");
+        for (Map.Entry<String, LatencyHistogram> e : PHASES.entrySet()) {
+            summary(sb, "auth_phase_duration_seconds", "phase", e.getKey(), e.getValue());
+        }
+
+        for (Map.Entry<String, Gauge> e : GAUGES.entrySet()) {
+            sb.append("# HELP ").append(e.getKey()).append(' ').append(e.getValue().help()).append('\n');
+            sb.append("# TYPE ").append(e.getKey()).append(' ').append(type(e.getKey())).append('\n');
+            sb.append(e.getKey()).append(' ').append(number(e.getValue().value().getAsDouble())).append('\n');
+        }
+        for (Map.Entry<String, GaugeFamily> e : GAUGE_FAMILIES.entrySet()) {
+            GaugeFamily family = e.getValue();
+            sb.append("# HELP ").append(e.getKey()).append(' ').append(family.help()).append('\n');
+            sb.append("# TYPE ").append(e.getKey()).append(' ').append(type(e.getKey())).append('\n');
+            for (Map.Entry<String, ? extends Number> v : family.values().get().entrySet()) {
+                sb.append(e.getKey()).append('{').append(family.label()).append("=\"").append(escape(v.getKey()))
+                        .append("\"} ").append(number(v.getValue().doubleValue())).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    // gauge() 로 등록한 값 중 이름이 _total 로 끝나는 것은 누적 카운터 (LongAdder 합계)
+    private static String type(String name) {
+        return name.endsWith("_total") ? "counter" : "gauge";
+    }
+
+    private static void summaryHeader(StringBuilder sb, String name, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" summary\n");
+    }
+
+    private static void summary(StringBuilder sb, String name, String label, String value, LatencyHistogram h) {
+        String labels = label + "=\"" + escape(value) + "\"";
+        for (double q : QUANTILES) {
+            sb.append(name).append('{').append(labels).append(",quantile=\"").append(q).append("\"} ")
+                    .append(seconds(h.quantile(q))).append('\n');
+        }
+        sb.append(name).append("_sum{").append(labels).append("} ").append(seconds(h.getTotalNanos())).append('\n');
+        sb.append(name).append("_count{").append(labels).append("} ").append(h.getCount()).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    private static String number(double v) {
+        return v == Math.rint(v) && !Double.isInfinite(v) ? String.valueOf((long) v) : String.valueOf(v);
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
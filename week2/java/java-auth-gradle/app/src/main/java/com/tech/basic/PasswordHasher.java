@@ -0,0 +1,188 @@
+package com.tech.basic;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+BCrypt 해시/검증 래퍼
+executor 가 주어지면 CPU 를 많이 쓰는 BCrypt 연산을 그 풀에서 실행하고 호출 스레드는 결과만 기다린다.
+bounded() 로 만든 풀은 대기열이 가득 차면 RejectedExecutionException 을 던진다 (호출자는 503 으로 응답).
+/metrics 구간: bcrypt_hash / bcrypt_check 는 계산 시간만, 풀 대기열에서 기다린 시간은 bcrypt_queue 로 따로 잰다.
+ */
+public class PasswordHasher {
+
+    private static final LatencyHistogram HASH_PHASE = Metrics.phase("bcrypt_hash");
+    private static final LatencyHistogram CHECK_PHASE = Metrics.phase("bcrypt_check");
+    private static final LatencyHistogram QUEUE_PHASE = Metrics.phase("bcrypt_queue");
+
+    private final int cost;
+    // null 이면 호출 스레드에서 직접 계산
+    private final ExecutorService executor;
+    private final int threads;
+
+    // ==== METRICS ==== //
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHasher(int cost) {
+        this(cost, null);
+    }
+
+    public PasswordHasher(int cost, ExecutorService executor) {
+        this.cost = cost;
+        this.executor = executor;
+        this.threads = executor instanceof ThreadPoolExecutor tpe ? tpe.getMaximumPoolSize() : 1;
+    }
+
+    // 코어 수만큼의 전용 스레드 + 크기 제한 대기열, 넘치면 즉시 거절 (AbortPolicy)
+    public static PasswordHasher bounded(int cost, int threads, int queueCapacity) {
+        AtomicInteger seq = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "bcrypt-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+        return new PasswordHasher(cost, executor);
+    }
+
+    /*
+    이 장비에서 hashpw 한 번이 targetMillis 이하로 걸리는 가장 큰 cost (minCost~maxCost)
+    cost 가 1 오르면 시간이 두 배이므로 minCost 부터 올려 가며 재고, 넘는 순간 멈춘다.
+    각 cost 는 두 번 재서 짧은 쪽을 쓴다 (첫 실행의 JIT/캐시 영향 제거).
+     */
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        BCrypt.hashpw("calibration", BCrypt.gensalt(4)); // 워밍업
+        int chosen = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            String salt = BCrypt.gensalt(cost);
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < 2; i++) {
+                long start = System.nanoTime();
+                BCrypt.hashpw("calibration", salt);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            if (TimeUnit.NANOSECONDS.toMillis(best) > targetMillis) {
+                break;
+            }
+            chosen = cost;
+            // 다음 cost 는 약 두 배: 확실히 넘을 게 뻔하면 재지 않는다
+            if (TimeUnit.NANOSECONDS.toMillis(best) * 2 > targetMillis * 3) {
+                break;
+            }
+        }
+        return chosen;
+    }
+
+    // "$2a$12$..." 형식 해시의 cost, 알 수 없는 형식이면 -1
+    public static int costOf(String hashed) {
+        if (hashed == null || hashed.length() < 7 || hashed.charAt(0) != '$' || hashed.charAt(3) != '$') {
+            return -1;
+        }
+        char tens = hashed.charAt(4);
+        char ones = hashed.charAt(5);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+
+    // 저장된 해시를 현재 cost 로 다시 만들어야 하는지 (낮은 cost 만, 높은 쪽은 그대로 둔다)
+    public boolean needsRehash(String hashed) {
+        int stored = costOf(hashed);
+        return stored > 0 && stored < cost;
+    }
+
+    // 전용 스레드를 미리 띄우고, 낮은 cost 로 같은 Blowfish 코드를 반복해 JIT 컴파일해 둔다
+    // (실제 cost 로 데우면 수 초가 걸린다. 처리 지표/Retry-After 계산에는 넣지 않는다)
+    public void warmUp(int iterations) {
+        if (executor instanceof ThreadPoolExecutor tpe) {
+            tpe.prestartAllCoreThreads();
+        }
+        String hashed = BCrypt.hashpw("warm-up", BCrypt.gensalt(4));
+        for (int i = 0; i < iterations; i++) {
+            BCrypt.checkpw("warm-up", hashed);
+        }
+    }
+
+    public String hash(String rawPassword) throws Exception {
+        return run(() -> BCrypt.hashpw(rawPassword, BCrypt.gensalt(cost)), HASH_PHASE);
+    }
+
+    public boolean check(String rawPassword, String hashed) throws Exception {
+        return run(() -> BCrypt.checkpw(rawPassword, hashed), CHECK_PHASE);
+    }
+
+    private <T> T run(Callable<T> task, LatencyHistogram phase) throws Exception {
+        long submitted = System.nanoTime();
+        Callable<T> timed = () -> {
+            long start = System.nanoTime();
+            if (executor != null) {
+                QUEUE_PHASE.record(start - submitted);
+            }
+            try {
+                return task.call();
+            } finally {
+                long busy = System.nanoTime() - start;
+                phase.record(busy);
+                busyNanos.add(busy);
+                completed.increment();
+            }
+        };
+        if (executor == null) {
+            return timed.call();
+        }
+        Future<T> future;
+        try {
+            future = executor.submit(timed);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) {
+                throw ex;
+            }
+            throw e;
+        }
+    }
+
+    // 지금 대기열을 모두 비우는 데 걸릴 예상 시간(초), 최소 1초 - Retry-After 헤더 값
+    public long retryAfterSeconds() {
+        long done = completed.sum();
+        if (!(executor instanceof ThreadPoolExecutor tpe) || done == 0) {
+            return 1;
+        }
+        double avgNanos = busyNanos.sum() / (double) done;
+        double drainNanos = (tpe.getQueue().size() + tpe.getActiveCount()) * avgNanos / threads;
+        return Math.max(1, (long) Math.ceil(drainNanos / 1_000_000_000.0));
+    }
+
+    public int getCost() { return cost; }
+    public long getCompletedCount() { return completed.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+
+    public int getQueuedCount() {
+        return executor instanceof ThreadPoolExecutor tpe ? tpe.getQueue().size() : 0;
+    }
+}
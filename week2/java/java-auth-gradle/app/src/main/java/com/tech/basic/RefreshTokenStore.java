@@ -0,0 +1,240 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+서버 측 refresh token 저장소 (opaque token + rotation + 재사용 탐지)
+ - 로그인마다 토큰 "계열(family)" 을 하나 만든다. 토큰은 32바이트 난수, 서버에는 SHA-256 만 저장
+ - rotate() 하면 쓴 토큰은 폐기되고 같은 계열의 새 토큰이 나온다 (한 계열에 유효한 토큰은 항상 하나)
+ - 이미 쓴 토큰이 다시 오면 탈취로 보고 계열 전체를 폐기 (정상 사용자도 다시 로그인해야 함)
+ - idle 만료(ttl, rotate 할 때마다 연장) + 로그인 후 최대 수명(absolute)
+ - 메모리 상한: 계열은 maxFamilies 개까지, 넘으면 가장 오래 안 쓴 계열을 폐기한다 (그 사용자는 다시 로그인)
+   계열마다 지난 토큰 해시는 최근 MAX_PREVIOUS 개만 남긴다 (그보다 오래된 토큰은 REUSED 대신 INVALID)
+만료/폐기된 계열은 sweepIntervalMillis 마다 백그라운드에서 정리한다.
+프로세스 메모리에만 있으므로 재시작하면 모든 refresh token 이 무효가 되고, 여러 노드를 띄우면
+/api/token/refresh 는 토큰을 발급한 노드로 가야 한다 (sticky routing 또는 인증 노드 하나).
+ */
+public class RefreshTokenStore implements AutoCloseable {
+
+    public enum Status { ROTATED, INVALID, REUSED }
+
+    // rotate() 결과: ROTATED 일 때만 token/username/userId 가 채워진다
+    public record Rotation(Status status, String token, String username, Long userId) {
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // 재사용 탐지를 위해 계열마다 남겨 두는 지난 토큰 해시 수
+    static final int MAX_PREVIOUS = 4;
+
+    private final long ttlMillis;
+    private final long absoluteMillis;
+    private final int maxFamilies;
+    // 토큰 해시 -> 계열 (현재 토큰 + 최근 MAX_PREVIOUS 개의 지난 토큰)
+    private final Map<String, Family> tokens = new ConcurrentHashMap<>();
+    // 살아 있는 계열, access-order 라 앞쪽이 가장 오래 안 쓴 계열. 자기 락으로 보호
+    // 락 순서: family -> families (families 를 잡은 채 family 를 잡지 않는다)
+    private final LinkedHashMap<Family, Boolean> families = new LinkedHashMap<>(16, 0.75f, true);
+    private final ScheduledExecutorService sweeper;
+
+    // ==== METRICS ==== //
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder rotated = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    public RefreshTokenStore(long ttlMillis, long absoluteMillis, int maxFamilies, long sweepIntervalMillis) {
+        if (maxFamilies < 1) {
+            throw new IllegalArgumentException("maxFamilies >= 1 required");
+        }
+        this.ttlMillis = ttlMillis;
+        this.absoluteMillis = absoluteMillis;
+        this.maxFamilies = maxFamilies;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "refresh-token-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // 로그인 시 새 계열의 첫 토큰
+    public String issue(User user) {
+        long now = System.currentTimeMillis();
+        Family family = new Family(user.getUsername(), user.getId(), now + absoluteMillis);
+        String token = newToken();
+        String hash = hash(token);
+        synchronized (family) {
+            family.currentHash = hash;
+            family.expiresAt = Math.min(now + ttlMillis, family.absoluteExpiresAt);
+        }
+        tokens.put(hash, family);
+        Family eldest = null;
+        synchronized (families) {
+            families.put(family, Boolean.TRUE);
+            if (families.size() > maxFamilies) {
+                Iterator<Family> it = families.keySet().iterator();
+                eldest = it.next();
+                it.remove();
+            }
+        }
+        if (eldest != null) {
+            synchronized (eldest) {
+                revoke(eldest);
+            }
+            evicted.increment();
+        }
+        issued.increment();
+        return token;
+    }
+
+    public Rotation rotate(String token) {
+        if (token == null || token.isEmpty()) {
+            invalid.increment();
+            return new Rotation(Status.INVALID, null, null, null);
+        }
+        String hash = hash(token);
+        Family family = tokens.get(hash);
+        if (family == null) {
+            invalid.increment();
+            return new Rotation(Status.INVALID, null, null, null);
+        }
+        long now = System.currentTimeMillis();
+        String next;
+        synchronized (family) {
+            if (family.revoked || family.expiresAt <= now) {
+                invalid.increment();
+                return new Rotation(Status.INVALID, null, null, null);
+            }
+            if (!hash.equals(family.currentHash)) {
+                // 이미 rotate 된 토큰: 공격자와 정상 사용자 중 누가 먼저 썼는지 알 수 없으므로 둘 다 끊는다
+                revoke(family);
+                reused.increment();
+                return new Rotation(Status.REUSED, null, null, null);
+            }
+            next = newToken();
+            String nextHash = hash(next);
+            family.previous.addLast(hash);
+            if (family.previous.size() > MAX_PREVIOUS) {
+                tokens.remove(family.previous.removeFirst(), family);
+            }
+            family.currentHash = nextHash;
+            family.expiresAt = Math.min(now + ttlMillis, family.absoluteExpiresAt);
+            tokens.put(nextHash, family);
+        }
+        synchronized (families) {
+            families.get(family); // LRU 순서 갱신 (그 사이 폐기됐으면 없음)
+        }
+        rotated.increment();
+        return new Rotation(Status.ROTATED, next, family.username, family.userId);
+    }
+
+    // 로그아웃 등: 토큰이 속한 계열 전체를 폐기
+    public void revoke(String token) {
+        if (token == null || token.isEmpty()) return;
+        Family family = tokens.get(hash(token));
+        if (family != null) {
+            synchronized (family) {
+                revoke(family);
+            }
+        }
+    }
+
+    // family 락을 잡고 부른다
+    private void revoke(Family family) {
+        family.revoked = true;
+        tokens.remove(family.currentHash, family);
+        for (String h : family.previous) {
+            tokens.remove(h, family);
+        }
+        family.previous.clear();
+        synchronized (families) {
+            families.remove(family);
+        }
+    }
+
+    void sweep() {
+        long now = System.currentTimeMillis();
+        List<Family> snapshot;
+        synchronized (families) {
+            snapshot = new ArrayList<>(families.keySet());
+        }
+        for (Family family : snapshot) {
+            synchronized (family) {
+                if (!family.revoked && family.expiresAt <= now) {
+                    revoke(family);
+                }
+            }
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // 남아 있는 토큰 해시 수 (지난 토큰 포함)
+    public int size() { return tokens.size(); }
+
+    public int familyCount() {
+        synchronized (families) {
+            return families.size();
+        }
+    }
+
+    public int getMaxFamilies() { return maxFamilies; }
+    public long getEvictedCount() { return evicted.sum(); }
+    public long getIssuedCount() { return issued.sum(); }
+    public long getRotatedCount() { return rotated.sum(); }
+    public long getReusedCount() { return reused.sum(); }
+    public long getInvalidCount() { return invalid.sum(); }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+    }
+
+    private static final class Family {
+        final String username;
+        final Long userId;
+        final long absoluteExpiresAt;
+        // 이미 rotate 된 토큰 해시, 오래된 것부터
+        final ArrayDeque<String> previous = new ArrayDeque<>(MAX_PREVIOUS + 1);
+        String currentHash;
+        long expiresAt;
+        boolean revoked;
+
+        Family(String username, Long userId, long absoluteExpiresAt) {
+            this.username = username;
+            this.userId = userId;
+            this.absoluteExpiresAt = absoluteExpiresAt;
+        }
+    }
+}
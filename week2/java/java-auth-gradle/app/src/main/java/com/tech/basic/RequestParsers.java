@@ -0,0 +1,189 @@
+package com.tech.basic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+요청 처리 경로용 한 번 훑기(single-pass) 파서
+ - findCookie : Cookie 헤더에서 이름이 일치하는 값 하나만 substring (정규식/배열 생성 없음)
+ - parseForm  : application/x-www-form-urlencoded 본문을 스트리밍으로 읽으면서
+                요청한 필드만 URL 디코딩, 크기 상한을 넘으면 FormTooLargeException
+ */
+public final class RequestParsers {
+
+    private RequestParsers() {
+    }
+
+    public static class FormTooLargeException extends IOException {
+        public FormTooLargeException(int maxBytes) {
+            super("form body exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    // "a=1; SESSION_ID=xyz; b=2" 에서 name 의 값. 없으면 null
+    public static String findCookie(List<String> cookieHeaders, String name) {
+        if (cookieHeaders == null) return null;
+        int nameLen = name.length();
+        for (String h : cookieHeaders) {
+            int len = h.length();
+            int i = 0;
+            while (i < len) {
+                // 구분자(; 와 공백) 건너뛰기
+                char c = h.charAt(i);
+                if (c == ';' || c == ' ' || c == '\t') {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                int eq = -1;
+                while (i < len && h.charAt(i) != ';') {
+                    if (eq < 0 && h.charAt(i) == '=') eq = i;
+                    i++;
+                }
+                if (eq - start == nameLen && h.regionMatches(start, name, 0, nameLen)) {
+                    int end = i;
+                    while (end > eq + 1 && (h.charAt(end - 1) == ' ' || h.charAt(end - 1) == '\t')) end--;
+                    return h.substring(eq + 1, end);
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+    names 순서대로 값을 담은 배열을 돌려준다 (없는 필드는 null, 같은 이름이 여러 번이면 마지막 값).
+    키는 디코딩하지 않고 원문 그대로 비교하며(필드 이름은 ASCII), 값은 필요한 필드만 디코딩한다.
+     */
+    public static String[] parseForm(InputStream in, int maxBytes, String... names) throws IOException {
+        FormParser p = new FormParser(names);
+        byte[] chunk = new byte[Math.min(maxBytes + 1, 2048)];
+        long total = 0;
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            total += n;
+            if (total > maxBytes) {
+                throw new FormTooLargeException(maxBytes);
+            }
+            for (int i = 0; i < n; i++) {
+                p.accept(chunk[i]);
+            }
+        }
+        p.endPair();
+        return p.values;
+    }
+
+    private static final class FormParser {
+        private static final int MAX_KEY = 64;
+
+        final String[] names;
+        final String[] values;
+
+        final byte[] key = new byte[MAX_KEY];
+        int keyLen;
+        boolean keyTooLong;
+        boolean inValue;
+        int field = -1;
+
+        byte[] value = new byte[64];
+        int valueLen;
+        // % 디코딩 상태: 0 일반, 1 '%' 다음, 2 16진수 한 자리 읽음
+        int pct;
+        int hi;
+
+        FormParser(String[] names) {
+            this.names = names;
+            this.values = new String[names.length];
+        }
+
+        void accept(byte b) {
+            if (b == '&') {
+                endPair();
+                return;
+            }
+            if (!inValue) {
+                if (b == '=') {
+                    field = match();
+                    inValue = true;
+                } else if (keyLen < MAX_KEY) {
+                    key[keyLen++] = b;
+                } else {
+                    keyTooLong = true;
+                }
+                return;
+            }
+            if (field < 0) {
+                return; // 필요 없는 필드는 디코딩하지 않는다
+            }
+            decode(b);
+        }
+
+        private void decode(byte b) {
+            if (pct == 0) {
+                if (b == '%') {
+                    pct = 1;
+                } else {
+                    append(b == '+' ? (byte) ' ' : b);
+                }
+                return;
+            }
+            int d = Character.digit(b, 16);
+            if (d < 0) {
+                // 잘못된 % 시퀀스는 원문 그대로 둔다
+                append((byte) '%');
+                if (pct == 2) append((byte) Character.forDigit(hi, 16));
+                pct = 0;
+                decode(b);
+                return;
+            }
+            if (pct == 1) {
+                hi = d;
+                pct = 2;
+            } else {
+                append((byte) (hi << 4 | d));
+                pct = 0;
+            }
+        }
+
+        private void append(byte b) {
+            if (valueLen == value.length) {
+                value = Arrays.copyOf(value, value.length * 2);
+            }
+            value[valueLen++] = b;
+        }
+
+        void endPair() {
+            if (!inValue && keyLen > 0) {
+                field = match(); // "flag" 처럼 = 없이 키만 있는 경우 빈 문자열
+            }
+            if (field >= 0) {
+                if (pct != 0) {
+                    // 끝에서 끊긴 % 시퀀스
+                    append((byte) '%');
+                    if (pct == 2) append((byte) Character.forDigit(hi, 16));
+                }
+                values[field] = new String(value, 0, valueLen, StandardCharsets.UTF_8);
+            }
+            keyLen = 0;
+            keyTooLong = false;
+            inValue = false;
+            field = -1;
+            valueLen = 0;
+            pct = 0;
+        }
+
+        private int match() {
+            if (keyTooLong) return -1;
+            for (int f = 0; f < names.length; f++) {
+                String name = names[f];
+                if (name.length() != keyLen) continue;
+                int i = 0;
+                while (i < keyLen && key[i] == name.charAt(i)) i++;
+                if (i == keyLen) return f;
+            }
+            return -1;
+        }
+    }
+}
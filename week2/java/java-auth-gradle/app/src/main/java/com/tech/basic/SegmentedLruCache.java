@@ -0,0 +1,142 @@
+package com.tech.basic;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*
+크기 상한이 있는 LRU 맵 (세션 저장소, 사용자 캐시, JWT 캐시, 로그인 제한 버킷이 같이 쓴다)
+ - 키 해시로 고른 세그먼트 하나만 잠그므로 서로 다른 키끼리는 거의 경합하지 않는다
+ - 세그먼트마다 access-order LinkedHashMap: 용량을 넘으면 가장 오래 안 쓴 항목을 O(1) 로 제거
+ - 맨 앞이 항상 가장 오래 안 쓴 항목이므로 만료 정리는 expireHead 로 앞에서부터 떼어내다 멈추면 된다
+만료 정책(TTL, idle)은 값에 담아 두고 쓰는 쪽이 판단한다.
+ */
+public final class SegmentedLruCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final int maxSize;
+    @SuppressWarnings("unchecked")
+    private final Segment<K, V>[] segments = new Segment[SEGMENTS];
+
+    // ==== METRICS ==== //
+    private final LongAdder evictions = new LongAdder(); // 용량 초과로 제거
+
+    public SegmentedLruCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize >= 1 required");
+        }
+        this.maxSize = maxSize;
+        // 세그먼트 용량 합이 maxSize 가 되도록 나머지를 앞 세그먼트에 나눠준다 (maxSize < 16 이면 세그먼트마다 1)
+        for (int i = 0; i < SEGMENTS; i++) {
+            int capacity = Math.max(1, maxSize / SEGMENTS + (i < maxSize % SEGMENTS ? 1 : 0));
+            segments[i] = new Segment<>(capacity, evictions);
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENTS - 1)];
+    }
+
+    // 있으면 맨 뒤(가장 최근)로 옮기고 돌려준다
+    public V get(K key) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            return seg.map.get(key);
+        }
+    }
+
+    public void put(K key, V value) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            seg.map.put(key, value);
+        }
+    }
+
+    // 없으면 factory 로 만들어 넣는다. 찾기와 넣기가 세그먼트 락 하나 안에서 일어나므로 같은 키에 값이 둘 생기지 않는다
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            return seg.map.computeIfAbsent(key, factory);
+        }
+    }
+
+    public V remove(K key) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            return seg.map.remove(key);
+        }
+    }
+
+    // 지금 값이 value 일 때만 제거 (그 사이 다른 값으로 바뀌었으면 그대로)
+    public boolean remove(K key, V value) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            return seg.map.remove(key, value);
+        }
+    }
+
+    // key 가 속한 세그먼트의 맨 앞부터 expired 인 항목을 제거하다 아닌 항목을 만나면 멈춘다. 제거한 수
+    public int expireHead(K key, Predicate<? super V> expired) {
+        Segment<K, V> seg = segmentFor(key);
+        synchronized (seg) {
+            return seg.expireHead(expired);
+        }
+    }
+
+    // 모든 세그먼트에 expireHead (백그라운드 정리용)
+    public int expireHeads(Predicate<? super V> expired) {
+        int removed = 0;
+        for (Segment<K, V> seg : segments) {
+            synchronized (seg) {
+                removed += seg.expireHead(expired);
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        int total = 0;
+        for (Segment<K, V> seg : segments) {
+            synchronized (seg) {
+                total += seg.map.size();
+            }
+        }
+        return total;
+    }
+
+    public int getMaxSize() { return maxSize; }
+    public long getEvictionCount() { return evictions.sum(); }
+
+    private static final class Segment<K, V> {
+        final LinkedHashMap<K, V> map;
+
+        Segment(int capacity, LongAdder evictions) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        int expireHead(Predicate<? super V> expired) {
+            int removed = 0;
+            Iterator<V> it = map.values().iterator();
+            while (it.hasNext() && expired.test(it.next())) {
+                it.remove();
+                removed++;
+            }
+            return removed;
+        }
+    }
+}
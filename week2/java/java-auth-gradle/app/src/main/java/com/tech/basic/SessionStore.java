@@ -0,0 +1,14 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+
+/*
+세션 ID -> 사용자 저장소
+구현체가 만료/용량 정책을 책임진다. get() 은 만료된 세션에 대해 null 을 돌려준다.
+ */
+public interface SessionStore {
+    void put(String sessionId, User user);
+    User get(String sessionId);
+    void remove(String sessionId);
+    int size();
+}
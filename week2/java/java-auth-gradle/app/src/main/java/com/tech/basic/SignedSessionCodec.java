@@ -0,0 +1,116 @@
+package com.tech.basic;
+
+import com.tech.basic.SimpleAuthServer.User;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/*
+서버에 아무것도 저장하지 않는 서명 세션 쿠키
+  v1.<userId>.<role>.<발급 시각>.<만료 시각>.<base64url(username)>.<base64url(HMAC-SHA256)>
+같은 session.secret 을 가진 서버라면 어느 인스턴스든 쿠키만으로 사용자를 복원한다 (sticky session 불필요).
+ - idle 만료: 남은 시간이 절반 아래로 떨어지면 renew() 로 새 쿠키를 내려 연장
+ - absolute 만료: 발급 시각 + absoluteMillis 를 넘겨 연장하지 않는다
+ - 서버 측 폐기는 불가능하므로 로그아웃은 쿠키 삭제뿐이다 (탈취된 쿠키는 만료까지 유효)
+ */
+public class SignedSessionCodec {
+
+    private static final String VERSION = "v1";
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+    public record Session(User user, long issuedAt, long expiresAt) {
+    }
+
+    // Mac 은 스레드 안전하지 않으므로 init 된 원본을 clone 해서 쓴다
+    private final Mac prototype;
+    private final long idleMillis;
+    private final long absoluteMillis;
+
+    public SignedSessionCodec(byte[] secret, long idleMillis, long absoluteMillis) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("session secret must be at least 32 bytes");
+        }
+        try {
+            this.prototype = Mac.getInstance("HmacSHA256");
+            prototype.init(new SecretKeySpec(secret, "HmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+        this.idleMillis = idleMillis;
+        this.absoluteMillis = absoluteMillis;
+    }
+
+    // 로그인 직후 새 세션
+    public String encode(User user) {
+        long now = System.currentTimeMillis();
+        return encode(user, now, Math.min(now + idleMillis, now + absoluteMillis));
+    }
+
+    private String encode(User user, long issuedAt, long expiresAt) {
+        String payload = VERSION + '.' + user.getId() + '.' + user.getRole() + '.' + issuedAt + '.' + expiresAt + '.'
+                + B64.encodeToString(user.getUsername().getBytes(StandardCharsets.UTF_8));
+        return payload + '.' + B64.encodeToString(sign(payload));
+    }
+
+    // 서명이 맞고 만료 전이면 세션, 아니면 null
+    public Session decode(String cookie) {
+        if (cookie == null) return null;
+        int sigStart = cookie.lastIndexOf('.');
+        if (sigStart < 0) return null;
+        String payload = cookie.substring(0, sigStart);
+        byte[] signature;
+        try {
+            signature = B64D.decode(cookie.substring(sigStart + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+        String[] parts = payload.split("\\.", -1);
+        if (parts.length != 6 || !VERSION.equals(parts[0])) {
+            return null;
+        }
+        try {
+            long issuedAt = Long.parseLong(parts[3]);
+            long expiresAt = Long.parseLong(parts[4]);
+            if (expiresAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            User user = new User();
+            user.setId(Long.parseLong(parts[1]));
+            user.setRole(parts[2]);
+            user.setUsername(new String(B64D.decode(parts[5]), StandardCharsets.UTF_8));
+            return new Session(user, issuedAt, expiresAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // idle 창의 절반 이상 지났으면 만료를 연장한 새 쿠키, 아니면 null (매 요청 Set-Cookie 방지)
+    public String renew(Session session) {
+        long now = System.currentTimeMillis();
+        if (session.expiresAt() - now > idleMillis / 2) {
+            return null;
+        }
+        long expiresAt = Math.min(now + idleMillis, session.issuedAt() + absoluteMillis);
+        if (expiresAt <= session.expiresAt()) {
+            return null; // 이미 absolute 한도
+        }
+        return encode(session.user(), session.issuedAt(), expiresAt);
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 Mac is not cloneable", e);
+        }
+    }
+}
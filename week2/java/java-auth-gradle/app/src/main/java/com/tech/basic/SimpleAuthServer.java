@@ -1,19 +1,33 @@
 package com.tech.basic;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
-import org.mindrot.jbcrypt.BCrypt;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
-import java.net.URLDecoder;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
 
 // java.sql – 필요한 것만 명시
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -27,28 +41,206 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
 // java.util – 필요한 것만 명시 (Date는 여기서 import)
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Properties;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /* 
 순수 Java + HttpServer + MariaDB + 세션 + JWT 예제
  */
 public class SimpleAuthServer {
 
+    // ==== CONFIG FILE ==== //
+    // -Dconfig.file=app.properties (또는 CONFIG_FILE) 이면 그 파일의 key=value 를 config() 가 읽는다
+    // 아래 설정들보다 먼저 초기화되어야 하므로 맨 위에 둔다
+    private static final Properties FILE_CONFIG = loadConfigFile();
+
     // ==== DB CONFIG (환경에 맞게 수정) ==== //
-    private static final String DB_URL = "jdbc:mariadb://localhost:3379/sql_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "SqlDba-1";
+    private static final String DB_URL = config("db.url", "jdbc:mariadb://localhost:3379/sql_db");
+    private static final String DB_USER = config("db.user", "root");
+    private static final String DB_PASSWORD = config("db.password", "SqlDba-1");
+    // db.pool.size=0 이면 기존처럼 요청마다 새 연결 (커넥션 풀 미사용)
+    private static final int DB_POOL_SIZE = Integer.parseInt(config("db.pool.size", "10"));
+    private static final long DB_POOL_MAX_WAIT_MS = Long.parseLong(config("db.pool.maxWaitMs", "5000"));
+
+    // ==== USER CACHE CONFIG ==== //
+    // user.cache.size=0 이면 캐시 없이 매번 DB 조회
+    private static final int USER_CACHE_SIZE = Integer.parseInt(config("user.cache.size", "10000"));
+    private static final long USER_CACHE_TTL_MS = Long.parseLong(config("user.cache.ttlSeconds", "60")) * 1000;
+    private static final long USER_CACHE_NEGATIVE_TTL_MS = Long.parseLong(config("user.cache.negativeTtlSeconds", "5")) * 1000;
+    // user.bloom.expected=0 이면 블룸 필터 미사용 (기본). 필터는 서버마다 따로라서 여러 서버가 같은 DB 를 쓰면
+    // 다른 서버에서 가입한 사용자가 다음 재구성 전까지 로그인에 실패한다: 단일 서버이거나 rebuildMinutes 를 짧게 둘 때만 켠다
+    private static final long USER_BLOOM_EXPECTED = Long.parseLong(config("user.bloom.expected", "0"));
+    private static final double USER_BLOOM_FPP = Double.parseDouble(config("user.bloom.fpp", "0.01"));
+    // 여러 서버가 같은 DB 를 쓰면 다른 서버에서 가입한 사용자를 반영하도록 주기적으로 재구성 (0 = 안 함)
+    private static final long USER_BLOOM_REBUILD_MINUTES = Long.parseLong(config("user.bloom.rebuildMinutes", "0"));
+
+    // ==== EXECUTOR CONFIG ==== //
+    // platform: 고정 크기 플랫폼 스레드 풀 (기존 동작), BCrypt 는 아래 전용 풀
+    // virtual : 요청마다 가상 스레드, BCrypt 도 그 가상 스레드에서 직접 (전용 풀/대기열 상한/503 없음, 비교용)
+    // hybrid  : 요청은 가상 스레드, BCrypt 는 아래 전용 풀
+    private static final String SERVER_EXECUTOR = config("server.executor", "hybrid");
+    private static final int SERVER_THREADS = Integer.parseInt(config("server.threads", "10"));
+    // platform 모드 요청 큐 상한 (넘치면 HttpServer 가 연결을 끊는다 - 최후의 안전장치)
+    private static final int SERVER_QUEUE = Integer.parseInt(config("server.queue", "1000"));
+    // JDK HttpServer 는 기본으로 TCP_NODELAY 를 끈다: 헤더와 본문을 따로 write 하므로 keep-alive 연결에서
+    // Nagle + 클라이언트 delayed ACK 로 응답마다 ~40ms 가 붙는다 (순차 요청에서 눈에 띔)
+    private static final boolean SERVER_NODELAY = Boolean.parseBoolean(config("server.nodelay", "true"));
+
+    // ==== STARTUP ==== //
+    // listen 직후 /ready 는 503, warm-up(커넥션 풀 채우기, BCrypt/JWT/파서/핸들러 JIT 데우기)이 끝나야 200
+    // DB 에 닿지 못하면 warm-up 이 끝나도 503 으로 두고 warmup.dbRetrySeconds 마다 다시 확인한다
+    // 로드밸런서/오케스트레이터는 /ready 가 200 일 때만 트래픽을 보낸다
+    // warmup.exit=true 는 AppCDS 학습 실행용: 데우기가 끝나면 종료 (./gradlew :app:cdsArchive)
+    private static final int SERVER_PORT = Integer.parseInt(config("server.port", "8080"));
+    private static final boolean WARMUP = Boolean.parseBoolean(config("warmup.enabled", "true"));
+    private static final int WARMUP_ITERATIONS = Integer.parseInt(config("warmup.iterations", "2000"));
+    private static final boolean WARMUP_EXIT = Boolean.parseBoolean(config("warmup.exit", "false"));
+    private static final long WARMUP_DB_RETRY_SECONDS = Long.parseLong(config("warmup.dbRetrySeconds", "5"));
+    private static volatile boolean ready;
+    // start() 는 JVM 당 한 번만 (설정/저장소/지표가 모두 static 이라 두 번째 서버는 첫 서버와 섞인다)
+    private static final AtomicBoolean STARTED = new AtomicBoolean();
+    // ready 가 아닐 때 /ready 본문
+    private static volatile String notReadyReason = "warming up";
+
+    // ==== BCRYPT COST ==== //
+    // bcrypt.cost=auto : 기동 시 이 장비에서 해시 한 번이 bcrypt.targetMs 이하인 가장 큰 cost (bcrypt.minCost~maxCost)
+    // bcrypt.cost=12   : 고정
+    // 로그인 성공 시 저장된 해시의 cost 가 지금보다 낮으면 백그라운드에서 새 cost 로 다시 저장한다
+    // (올리기만 한다: 느린 장비에서 auto 로 낮게 잡혀도 이미 강한 해시를 약하게 바꾸지 않는다)
+    private static final String BCRYPT_COST = config("bcrypt.cost", "auto");
+    private static final long BCRYPT_TARGET_MS = Long.parseLong(config("bcrypt.targetMs", "250"));
+    private static final int BCRYPT_MIN_COST = Integer.parseInt(config("bcrypt.minCost", "12"));
+    private static final int BCRYPT_MAX_COST = Integer.parseInt(config("bcrypt.maxCost", "16"));
+    // users 테이블의 cost 분포(/metrics) 갱신 주기
+    private static final long BCRYPT_COST_STATS_MINUTES = Long.parseLong(config("bcrypt.costStatsMinutes", "10"));
+
+    // ==== BCRYPT POOL CONFIG ==== //
+    // platform/hybrid 모드: 대기열(bcrypt.queue)이 가득 차면 로그인/회원가입은 503 + Retry-After 로 바로 거절
+    private static final int BCRYPT_THREADS = Integer.parseInt(
+            config("bcrypt.threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+    private static final int BCRYPT_QUEUE = Integer.parseInt(config("bcrypt.queue", "64"));
+
+    // ==== LOAD SHEDDING ==== //
+    // 비싼 요청(BCrypt/대량 등록)은 동시에 shed.maxExpensive 개까지만 실행하고 나머지는 따로 줄을 세운다
+    // 싼 요청(정적 파일, /home 등)은 이 줄을 서지 않으므로 BCrypt 요청 뒤에서 기다리지 않는다
+    //   기본값: bcrypt.threads 의 2배 (BCrypt 풀이 놀지 않을 만큼), platform 모드는 server.threads 의 절반까지
+    //   (나머지 worker 스레드는 싼 요청 몫)
+    // 대기(executor 큐 + 이 줄)가 shed.intervalMs 동안 계속 shed.targetMs 를 넘으면 비싼 요청은 바로 503
+    // 스레드가 모두 BCrypt(cost 12, 수백 ms) 중이면 짧은 대기는 정상이므로 target 은 그보다 넉넉히 잡는다
+    // 이 줄이 있어 executor 에 큐가 없는 virtual/hybrid 모드에서도 동작한다
+    private static final int SHED_MAX_EXPENSIVE = Integer.parseInt(config("shed.maxExpensive", String.valueOf(
+            "platform".equals(SERVER_EXECUTOR)
+                    ? Math.max(1, Math.min(2 * BCRYPT_THREADS, SERVER_THREADS / 2))
+                    : 2 * BCRYPT_THREADS)));
+    private static final LoadShedder LOAD_SHEDDER = new LoadShedder(
+            TimeUnit.MILLISECONDS.toNanos(Long.parseLong(config("shed.targetMs", "50"))),
+            TimeUnit.MILLISECONDS.toNanos(Long.parseLong(config("shed.intervalMs", "500"))),
+            SHED_MAX_EXPENSIVE);
+    private static final Set<String> SHEDDABLE_ROUTES = Set.of("/api/login", "/api/signup", "/api/users/import");
+
+    // ==== BULK IMPORT CONFIG ==== //
+    // 대량 등록은 한 번에 하나만, 해시는 로그인과 같은 BCrypt 풀에서 계산하되
+    // 동시에 맡기는 작업은 import.threads 개까지 (기본 bcrypt.threads 의 절반: 나머지는 로그인 몫)
+    private static final int IMPORT_THREADS = Integer.parseInt(
+            config("import.threads", String.valueOf(Math.max(1, BCRYPT_THREADS / 2))));
+    private static final int IMPORT_CHUNK_SIZE = Integer.parseInt(config("import.chunkSize", "1000"));
+    private static final long IMPORT_MAX_ROWS = Long.parseLong(config("import.maxRows", "1000000"));
+
+    // ==== LOGIN THROTTLE ==== //
+    // 클라이언트 IP 별, username 별 토큰 버킷: burst 개까지 바로 허용, 이후 분당 perMinute 개 (넘으면 429)
+    // *.burst=0 이면 해당 제한 미사용
+    private static final int LOGIN_IP_BURST = Integer.parseInt(config("login.ip.burst", "30"));
+    private static final double LOGIN_IP_PER_MINUTE = Double.parseDouble(config("login.ip.perMinute", "30"));
+    private static final int LOGIN_USER_BURST = Integer.parseInt(config("login.user.burst", "10"));
+    private static final double LOGIN_USER_PER_MINUTE = Double.parseDouble(config("login.user.perMinute", "5"));
+    // username 제한은 시도마다 토큰을 먼저 쓰고 성공하면 돌려준다 (결국 실패한 로그인만 남는다)
+    // 리버스 프록시 뒤에서는 원격 주소가 모두 프록시라 IP 제한이 서버 전체 제한이 된다:
+    // login.trustedProxies=10.0.0.5,10.0.0.6 이면 그 주소에서 온 요청은 X-Forwarded-For 를 오른쪽부터 읽어
+    // 처음 나오는 신뢰하지 않는 주소를 클라이언트 IP 로 쓴다 (제한과 감사 로그 모두)
+    private static final Set<String> TRUSTED_PROXIES = csvSet(config("login.trustedProxies", ""));
+    // 제한기마다 기억하는 키 수 상한 (넘으면 가장 오래 안 쓴 키부터 잊는다)
+    private static final int LOGIN_THROTTLE_MAX_KEYS = Integer.parseInt(config("login.throttle.maxKeys", "100000"));
 
     // ==== SESSION STORE ==== //
-    private static final Map<String, User> SESSION_STORE = new ConcurrentHashMap<>();
+    // session.store=memory : idle 30분(접근 시 연장) / 로그인 후 최대 8시간 / 최대 10만 개 (초과 시 LRU 제거)
+    // session.store=mapped : 같은 만료 정책, session.file 에 기록되어 재시작 후에도 유지
+    // session.store=signed : 서버에 저장하지 않고 HMAC 서명 쿠키만으로 인증 (session.secret 을 모든 인스턴스가 공유)
+    private static final String SESSION_MODE = config("session.store", "memory");
+    private static final long SESSION_IDLE_MS = Long.parseLong(config("session.idleSeconds", "1800")) * 1000;
+    private static final long SESSION_ABSOLUTE_MS = Long.parseLong(config("session.absoluteSeconds", "28800")) * 1000;
+    // signed 모드에서는 null
+    private static final SessionStore SESSION_STORE = createSessionStore();
+    // signed 가 아닌 모드에서는 null
+    private static final SignedSessionCodec SESSION_CODEC = createSessionCodec();
     private static final String SESSION_COOKIE_NAME = "SESSION_ID";
 
+    // ==== STATIC RESOURCES ==== //
+    // web/ 아래 파일은 기동 시 한 번만 읽어서 (원본 + gzip + ETag) 메모리에 둔다
+    private static final StaticResourceCache RESOURCES = loadResources();
+    // 로그인 뒤 동적 페이지: 기동 시 byte 조각 + {{username}} 자리로 컴파일
+    private static final HtmlTemplate HOME_PAGE = loadTemplate("templates/home.html");
+    private static final HtmlTemplate INDEX_PAGE = loadTemplate("main/index.html");
+    // HTML 은 매번 ETag 로 재검증(304), CSS/JS 는 1시간 캐시, 로그인 뒤 페이지는 공유 캐시 금지
+    private static final String PUBLIC_PAGE_CACHE = "no-cache";
+    private static final String STATIC_ASSET_CACHE = "public, max-age=3600";
+    private static final String PRIVATE_PAGE_CACHE = "private, no-cache";
+
+    // ==== FORM ==== //
+    // 로그인/회원가입 폼 본문 최대 크기 (넘으면 413)
+    private static final int FORM_MAX_BYTES = Integer.parseInt(config("form.maxBytes", "8192"));
+
+    // ==== TOKEN INTROSPECTION ==== //
+    // 요청 하나에 담을 수 있는 토큰 수와 본문 크기, 검증 결과 캐시 크기 (0 이면 캐시 없이 매번 검증)
+    private static final int INTROSPECT_MAX_TOKENS = Integer.parseInt(config("introspect.maxTokens", "100"));
+    private static final int INTROSPECT_MAX_BYTES = Integer.parseInt(config("introspect.maxBytes", "65536"));
+    private static final int TOKEN_CACHE_SIZE = Integer.parseInt(config("token.cache.size", "100000"));
+
+    // ==== REFRESH TOKEN ==== //
+    // access token(JWT) 수명은 JwtUtil 의 jwt.accessTtlSeconds, 만료되면 /api/token/refresh 로 재발급
+    // refresh token 은 rotate 할 때마다 refresh.ttlSeconds(14일) 연장, 로그인 후 최대 refresh.absoluteSeconds(30일)
+    // 이 프로세스 메모리에만 있다: 재시작하면 모두 무효, 여러 노드면 refresh 는 발급한 노드로 (sticky routing)
+    // refresh.maxFamilies 개(로그인 수)를 넘으면 가장 오래 안 쓴 로그인의 refresh token 을 폐기
+    private static final long REFRESH_TTL_MS = Long.parseLong(config("refresh.ttlSeconds", "1209600")) * 1000;
+    private static final long REFRESH_ABSOLUTE_MS = Long.parseLong(config("refresh.absoluteSeconds", "2592000")) * 1000;
+    private static final RefreshTokenStore REFRESH_TOKENS = new RefreshTokenStore(REFRESH_TTL_MS, REFRESH_ABSOLUTE_MS,
+            Integer.parseInt(config("refresh.maxFamilies", "100000")),
+            Long.parseLong(config("refresh.sweepSeconds", "300")) * 1000);
+    private static final String REFRESH_COOKIE_NAME = "REFRESH_TOKEN";
+
+    // ==== AUDIT LOG ==== //
+    // audit.sink=file : audit.dir 아래 세그먼트 파일 (JSON 한 줄에 이벤트 하나)
+    // audit.sink=jdbc : login_audit 테이블에 배치 INSERT (전용 커넥션 1개)
+    // audit.sink=both : 둘 다,  off : 감사 로그 없음
+    // 요청 스레드는 audit.buffer 크기 링 버퍼에 넣기만 하고, 가득 차면 버린다 (audit_dropped_total)
+    private static final String AUDIT_SINK = config("audit.sink", "file");
+    private static final String AUDIT_DIR = config("audit.dir", "audit");
+    private static final long AUDIT_SEGMENT_BYTES = Long.parseLong(config("audit.segmentMb", "64")) * 1024 * 1024;
+    private static final int AUDIT_MAX_SEGMENTS = Integer.parseInt(config("audit.maxSegments", "20"));
+    private static final boolean AUDIT_FSYNC = Boolean.parseBoolean(config("audit.fsync", "false"));
+    private static final int AUDIT_BUFFER = Integer.parseInt(config("audit.buffer", "65536"));
+    private static final int AUDIT_BATCH_SIZE = Integer.parseInt(config("audit.batchSize", "500"));
+    private static final long AUDIT_FLUSH_MS = Long.parseLong(config("audit.flushMs", "200"));
+
     // ==== JWT COOKIE 이름 ==== //
     private static final String JWT_COOKIE_NAME = "ACCESS_TOKEN";
 
@@ -60,14 +252,116 @@ public class SimpleAuthServer {
         // JDBC 드라이버 로드
         Class.forName("org.mariadb.jdbc.Driver");
 
-        UserRepository userRepository = new JdbcUserRepository(DB_URL, DB_USER, DB_PASSWORD);
-        AuthService authService = new AuthService(userRepository);
+        JdbcUserRepository jdbcRepository;
+        ConnectionPool pool = null;
+        if (DB_POOL_SIZE > 0) {
+            // 서버 측 prepared statement 를 켜서 풀에 캐시된 Statement 가 재사용되도록 한다
+            pool = new ConnectionPool(mariadbOption(DB_URL, "useServerPrepStmts=true"), DB_USER, DB_PASSWORD,
+                    DB_POOL_SIZE, DB_POOL_MAX_WAIT_MS, 30_000, 32);
+            // 커넥션은 여기서 열지 않는다: DB 가 아직 내려가 있어도 서버는 떠서 /ready 503 으로 기다린다
+            jdbcRepository = new JdbcUserRepository(pool);
+        } else {
+            jdbcRepository = new JdbcUserRepository(DB_URL, DB_USER, DB_PASSWORD);
+        }
+        start(jdbcRepository, pool);
+    }
 
-        HttpServer server = HttpServer.create(new InetSocketAddress(8080), 0);
-        server.setExecutor(Executors.newFixedThreadPool(10));
+    /*
+    저장소를 주입받아 서버를 띄우고 warm-up 이 끝나면 돌려준다 (main 은 설정의 MariaDB 로 만든 JdbcUserRepository 를 넘긴다)
+    DB 에 닿지 못했으면 /ready 는 503 인 채로 돌려주고, 백그라운드에서 DB 가 응답할 때 ready 가 된다
+     - repository: 가장 안쪽 저장소. 캐시/블룸 필터는 설정대로 그 위에 씌운다
+       JdbcUserRepository 가 아니면 username 전체를 훑을 수 없으므로 블룸 필터와 bcrypt_user_hashes 는 끈다
+     - pool: 지표와 warm-up 에서 쓰는 풀 (없으면 null)
+    나머지 설정은 config() 로 읽으므로 이 클래스가 처음 로드되기 전에 시스템 프로퍼티 / config.file 로 준다.
+    server.port=0 이면 빈 포트를 잡는다 (돌려준 서버의 getAddress() 로 확인)
+    JVM 당 한 번만 부를 수 있다 (두 번째 호출은 IllegalStateException):
+    설정은 클래스 로드 시 static final 로 한 번 읽히고, 세션/토큰 저장소와 gauge 등록도 static 이라
+    같은 JVM 의 두 번째 서버는 다른 설정을 받을 수 없고 첫 서버와 상태를 나눠 쓰게 된다.
+    설정을 바꿔 여러 번 띄우려면 JVM 을 따로 띄운다.
+     */
+    public static HttpServer start(UserRepository repository, ConnectionPool pool) throws Exception {
+        if (!STARTED.compareAndSet(false, true)) {
+            throw new IllegalStateException("SimpleAuthServer.start() can only be called once per JVM");
+        }
+        JdbcUserRepository jdbcRepository = repository instanceof JdbcUserRepository jdbc ? jdbc : null;
+        UserRepository userRepository = repository;
+        CachingUserRepository cachingRepository = null;
+        if (USER_CACHE_SIZE > 0) {
+            cachingRepository = new CachingUserRepository(userRepository,
+                    USER_CACHE_SIZE, USER_CACHE_TTL_MS, USER_CACHE_NEGATIVE_TTL_MS);
+            userRepository = cachingRepository;
+        }
+        BloomFilterUserRepository bloomRepository = null;
+        if (USER_BLOOM_EXPECTED > 0 && jdbcRepository != null) {
+            // 가장 바깥: "확실히 없는" username 은 캐시/DB 까지 가지 않는다
+            BloomFilterUserRepository bloom = new BloomFilterUserRepository(userRepository,
+                    jdbcRepository::forEachUsername, USER_BLOOM_EXPECTED, USER_BLOOM_FPP);
+            try {
+                bloom.rebuild();
+            } catch (Exception e) {
+                // DB 가 아직 없으면 필터 없이(모두 통과) 시작하고 다음 재구성 때 채운다
+                System.out.println("Username Bloom filter: initial build failed: " + e);
+            }
+            if (USER_BLOOM_REBUILD_MINUTES > 0) {
+                ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "username-bloom-rebuild");
+                    t.setDaemon(true);
+                    return t;
+                });
+                scheduler.scheduleWithFixedDelay(() -> {
+                    try {
+                        bloom.rebuild();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }, USER_BLOOM_REBUILD_MINUTES, USER_BLOOM_REBUILD_MINUTES, TimeUnit.MINUTES);
+            }
+            bloomRepository = bloom;
+            userRepository = bloom;
+        }
+        int bcryptCost = "auto".equals(BCRYPT_COST)
+                ? PasswordHasher.calibrate(BCRYPT_TARGET_MS, BCRYPT_MIN_COST, BCRYPT_MAX_COST)
+                : Integer.parseInt(BCRYPT_COST);
+        System.out.println("BCrypt cost " + bcryptCost + ("auto".equals(BCRYPT_COST)
+                ? " (calibrated for " + BCRYPT_TARGET_MS + "ms)" : ""));
+        PasswordHasher passwordHasher = createHasher(SERVER_EXECUTOR, bcryptCost, BCRYPT_THREADS, BCRYPT_QUEUE);
+        AuditLog auditLog = createAuditLog();
+        AuthService authService = new AuthService(userRepository, passwordHasher, auditLog);
+        BulkUserImporter importer = new BulkUserImporter(userRepository, passwordHasher,
+                Executors.newFixedThreadPool(IMPORT_THREADS), IMPORT_CHUNK_SIZE, IMPORT_MAX_ROWS);
+        Semaphore importPermit = new Semaphore(1);
+        VerifiedTokenCache tokenCache = TOKEN_CACHE_SIZE > 0 ? new VerifiedTokenCache(TOKEN_CACHE_SIZE) : null;
+        TokenBucketLimiter ipLimiter = createLimiter(LOGIN_IP_BURST, LOGIN_IP_PER_MINUTE);
+        TokenBucketLimiter userLimiter = createLimiter(LOGIN_USER_BURST, LOGIN_USER_PER_MINUTE);
+        registerGauges(pool, cachingRepository, bloomRepository, passwordHasher, tokenCache);
+        registerBcryptGauges(jdbcRepository, authService, passwordHasher);
+        registerLimiterGauges("login_ip", ipLimiter);
+        registerLimiterGauges("login_user", userLimiter);
+        registerAuditGauges(auditLog);
+        Metrics.gauge("server_ready", "1 once warm-up has finished and /ready answers 200", () -> ready ? 1 : 0);
+
+        // HttpServer 의 ServerConfig 가 처음 로드될 때 읽으므로 create 전에 설정
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", String.valueOf(SERVER_NODELAY));
+        }
+        HttpServer server = HttpServer.create(new InetSocketAddress(SERVER_PORT), 0);
+        server.setExecutor(Metrics.queueTimed(createExecutor(SERVER_EXECUTOR, SERVER_THREADS, SERVER_QUEUE)));
+
+        // GET /metrics -> Prometheus 텍스트 형식 지표 (자기 자신은 계측하지 않는다)
+        server.createContext("/metrics", Metrics.handler());
+
+        // GET /ready -> warm-up 이 끝났으면 200, 아니면 503 (프로브 요청이라 계측하지 않는다)
+        server.createContext("/ready", exchange -> {
+            if (ready) {
+                writeText(exchange, 200, "ready");
+            } else {
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                writeText(exchange, 503, notReadyReason);
+            }
+        });
 
         // GET / -> /login 리다이렉트
-        server.createContext("/", exchange -> {
+        route(server, "/", exchange -> {
             if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
                 redirect(exchange, "/login");
             } else {
@@ -76,25 +370,25 @@ public class SimpleAuthServer {
         });
 
         // GET /login -> login.html
-        server.createContext("/login", exchange -> {
+        route(server, "/login", exchange -> {
             if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-                serveResource(exchange, "web/login.html", "text/html; charset=utf-8");
+                serveResource(exchange, "web/login.html", PUBLIC_PAGE_CACHE);
             } else {
                 methodNotAllowed(exchange);
             }
         });
 
         // GET /signup -> signup.html
-        server.createContext("/signup", exchange -> {
+        route(server, "/signup", exchange -> {
             if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
-                serveResource(exchange, "web/signup.html", "text/html; charset=utf-8");
+                serveResource(exchange, "web/signup.html", PUBLIC_PAGE_CACHE);
             } else {
                 methodNotAllowed(exchange);
             }
         });
 
         // GET /static/* -> CSS/JS
-        server.createContext("/static", exchange -> {
+        route(server, "/static", exchange -> {
             if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
                 methodNotAllowed(exchange);
                 return;
@@ -106,20 +400,11 @@ public class SimpleAuthServer {
                 return;
             }
 
-            String resourcePath = "web/" + filename;
-            String contentType;
-            if (filename.endsWith(".css")) {
-                contentType = "text/css; charset=utf-8";
-            } else if (filename.endsWith(".js")) {
-                contentType = "application/javascript; charset=utf-8";
-            } else {
-                contentType = "application/octet-stream";
-            }
-            serveResource(exchange, resourcePath, contentType);
+            serveResource(exchange, "web/" + filename, STATIC_ASSET_CACHE);
         });
 
-        // GET /index -> main/index.html (로그인 후 메인 페이지)
-        server.createContext("/index", exchange -> {
+        // GET /index -> main/index.html 템플릿 (로그인 후 메인 페이지)
+        route(server, "/index", exchange -> {
             if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
                 methodNotAllowed(exchange);
                 return;
@@ -132,19 +417,20 @@ public class SimpleAuthServer {
                 return;
             }
             
-            serveResource(exchange, "main/index.html", "text/html; charset=utf-8");
+            INDEX_PAGE.render(exchange, PRIVATE_PAGE_CACHE, user.getUsername());
         });
 
         // POST /api/signup -> 회원가입
-        server.createContext("/api/signup", exchange -> {
+        route(server, "/api/signup", exchange -> {
             if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
                 methodNotAllowed(exchange);
                 return;
             }
-            Map<String, String> params = parseFormBody(exchange);
-            String username = params.get("username");
-            String password = params.get("password");
-            String role = params.get("role");
+            String[] form = readForm(exchange, "username", "password", "role");
+            if (form == null) return;
+            String username = form[0];
+            String password = form[1];
+            String role = form[2];
 
             if (isBlank(username) || isBlank(password)) {
                 writeText(exchange, 400, "username and password are required");
@@ -157,12 +443,14 @@ public class SimpleAuthServer {
             }
 
             try {
-                authService.signUp(username, password, role);
+                authService.signUp(username, password, role, clientIp(exchange));
                 redirect(exchange, "/login");
             } catch (SQLIntegrityConstraintViolationException dup) {
                 writeText(exchange, 400, "username already exists");
             } catch (IllegalArgumentException iae) {
                 writeText(exchange, 400, iae.getMessage());
+            } catch (RejectedExecutionException busy) {
+                serviceUnavailable(exchange, passwordHasher.retryAfterSeconds());
             } catch (Exception e) {
                 e.printStackTrace();
                 writeText(exchange, 500, "signup error");
@@ -172,35 +460,62 @@ public class SimpleAuthServer {
         // POST /api/login 
         // -> 로그인 + 세션 + JWT 발급 + 8008으로 직접 리다이렉트 테스트 완료
         // -> 로그인 + 세션 + JWT 발급 + 프론트엔드로 리다이렉트 처리
-        server.createContext("/api/login", exchange -> {
+        route(server, "/api/login", exchange -> {
             if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
                 methodNotAllowed(exchange);
                 return;
             }
 
-            Map<String, String> params = parseFormBody(exchange);
-            String username = params.get("username");
-            String password = params.get("password");
+            // 본문을 읽기 전에 IP 제한부터 (거절 비용 최소화)
+            String clientIp = clientIp(exchange);
+            if (ipLimiter != null) {
+                long wait = ipLimiter.tryAcquire(clientIp);
+                if (wait > 0) {
+                    tooManyRequests(exchange, wait);
+                    return;
+                }
+            }
+
+            String[] form = readForm(exchange, "username", "password");
+            if (form == null) return;
+            String username = form[0];
+            String password = form[1];
 
             if (isBlank(username) || isBlank(password)) {
                 writeText(exchange, 400, "username and password are required");
                 return;
             }
 
+            // 대소문자만 바꾼 username 으로 제한을 피하지 못하도록 소문자로 묶는다
+            // 토큰은 BCrypt 전에 가져가고 (동시 시도도 하나씩 센다) 로그인이 성공하면 돌려준다
+            String userKey = username.toLowerCase(Locale.ROOT);
+            if (userLimiter != null) {
+                long wait = userLimiter.tryAcquire(userKey);
+                if (wait > 0) {
+                    tooManyRequests(exchange, wait);
+                    return;
+                }
+            }
+
             try {
-                User user = authService.login(username, password);
+                User user = authService.login(username, password, clientIp);
                 if (user == null) {
                     writeText(exchange, 401, "invalid credentials");
                     return;
                 }
+                if (userLimiter != null) {
+                    userLimiter.refund(userKey);
+                }
 
                 // 1) 기존 세션 쿠키 (8080에서 /home 테스트용, 필요 없으면 제거 가능)
-                String sessionId = UUID.randomUUID().toString();
-                SESSION_STORE.put(sessionId, user);
-                exchange.getResponseHeaders().add(
-                        "Set-Cookie",
-                        SESSION_COOKIE_NAME + "=" + sessionId + "; Path=/; HttpOnly; SameSite=Lax"
-                );
+                String sessionId;
+                if (SESSION_CODEC != null) {
+                    sessionId = SESSION_CODEC.encode(user);
+                } else {
+                    sessionId = UUID.randomUUID().toString();
+                    SESSION_STORE.put(sessionId, user);
+                }
+                exchange.getResponseHeaders().add("Set-Cookie", sessionCookie(sessionId));
 
                 // 2) JWT 생성 후 쿠키로 설정 (8008/8010 서버가 이 쿠키를 보고 검증)
                 String jwt = JwtUtil.createToken(user);
@@ -208,6 +523,8 @@ public class SimpleAuthServer {
                         "Set-Cookie",
                         JWT_COOKIE_NAME + "=" + jwt + "; Path=/; HttpOnly; SameSite=Lax"
                 );
+                // JWT 가 만료되면 비밀번호(BCrypt) 대신 이 쿠키로 /api/token/refresh 에서 재발급
+                exchange.getResponseHeaders().add("Set-Cookie", refreshCookie(REFRESH_TOKENS.issue(user)));
 
                 // 3) Vue 프론트에서 "로그인 여부"를 판단하기 위한 일반 쿠키 (JS에서 읽기 가능)
                 //    - HttpOnly 를 붙이지 않는다
@@ -228,14 +545,151 @@ public class SimpleAuthServer {
                 // 5) 로그인 후 8080 서버의 /index로 리다이렉트
                 redirect(exchange, "/index");
 
+            } catch (RejectedExecutionException busy) {
+                serviceUnavailable(exchange, passwordHasher.retryAfterSeconds());
             } catch (Exception e) {
                 e.printStackTrace();
                 writeText(exchange, 500, "login error");
             }
         });
 
+        // POST /api/users/import -> 관리자 전용 대량 등록 (text/csv 또는 application/x-ndjson 본문)
+        route(server, "/api/users/import", exchange -> {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                methodNotAllowed(exchange);
+                return;
+            }
+            User admin = resolveUser(exchange);
+            if (admin == null || !"admin".equals(admin.getRole())) {
+                writeText(exchange, 403, "admin only");
+                return;
+            }
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            BulkUserImporter.Format format;
+            if (contentType != null && contentType.startsWith("text/csv")) {
+                format = BulkUserImporter.Format.CSV;
+            } else if (contentType != null && (contentType.startsWith("application/x-ndjson")
+                    || contentType.startsWith("application/ndjson"))) {
+                format = BulkUserImporter.Format.NDJSON;
+            } else {
+                writeText(exchange, 415, "Content-Type must be text/csv or application/x-ndjson");
+                return;
+            }
+            if (!importPermit.tryAcquire()) {
+                serviceUnavailable(exchange, 5);
+                return;
+            }
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+                BulkUserImporter.Result result = importer.importUsers(reader, format);
+                byte[] bytes = result.toJson().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(bytes);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                writeText(exchange, 500, "import error");
+            } finally {
+                importPermit.release();
+            }
+        });
+
+        // POST /api/token/refresh -> refresh token 으로 새 access token(JWT) 발급 + refresh token 교체
+        // 브라우저: REFRESH_TOKEN 쿠키로 요청, 새 토큰도 쿠키로 받는다
+        // 그 외 클라이언트: refresh_token 폼 필드로 요청, 새 토큰은 응답 JSON 의 refresh_token
+        route(server, "/api/token/refresh", exchange -> {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                methodNotAllowed(exchange);
+                return;
+            }
+            String presented = RequestParsers.findCookie(exchange.getRequestHeaders().get("Cookie"), REFRESH_COOKIE_NAME);
+            boolean fromCookie = presented != null;
+            if (!fromCookie) {
+                String[] form = readForm(exchange, "refresh_token");
+                if (form == null) return;
+                presented = form[0];
+            }
+
+            RefreshTokenStore.Rotation rotation = REFRESH_TOKENS.rotate(presented);
+            if (rotation.status() != RefreshTokenStore.Status.ROTATED) {
+                exchange.getResponseHeaders().add("Set-Cookie", REFRESH_COOKIE_NAME + "=; Path=/api; Max-Age=0");
+                writeText(exchange, 401, rotation.status() == RefreshTokenStore.Status.REUSED
+                        ? "refresh token reuse detected, please log in again" : "invalid refresh token");
+                return;
+            }
+            try {
+                // 비밀번호 검증 없이 사용자 조회(캐시)만: 탈퇴했거나 같은 이름으로 다시 가입한 경우 거절
+                User user = authService.findByUsername(rotation.username());
+                if (user == null || !user.getId().equals(rotation.userId())) {
+                    REFRESH_TOKENS.revoke(rotation.token());
+                    exchange.getResponseHeaders().add("Set-Cookie", REFRESH_COOKIE_NAME + "=; Path=/api; Max-Age=0");
+                    writeText(exchange, 401, "invalid refresh token");
+                    return;
+                }
+                String jwt = JwtUtil.createToken(user);
+                exchange.getResponseHeaders().add(
+                        "Set-Cookie",
+                        JWT_COOKIE_NAME + "=" + jwt + "; Path=/; HttpOnly; SameSite=Lax"
+                );
+                StringBuilder json = new StringBuilder(512).append("{\"access_token\":");
+                appendJsonString(json, jwt);
+                json.append(",\"token_type\":\"Bearer\",\"expires_in\":").append(JwtUtil.accessTtlSeconds());
+                if (fromCookie) {
+                    exchange.getResponseHeaders().add("Set-Cookie", refreshCookie(rotation.token()));
+                } else {
+                    json.append(",\"refresh_token\":");
+                    appendJsonString(json, rotation.token());
+                }
+                byte[] bytes = json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+                exchange.getResponseHeaders().add("Cache-Control", "no-store");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(bytes);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                writeText(exchange, 500, "refresh error");
+            }
+        });
+
+        // POST /api/introspect -> ACCESS_TOKEN 일괄 검증 (8008/8010 등 다른 서버용)
+        // 본문: 한 줄에 토큰 하나 (text/plain), 응답: 같은 순서의 JSON 배열
+        //   [{"active":true,"sub":"1","username":"hong","iat":1700000000,"exp":1700003600},{"active":false}]
+        route(server, "/api/introspect", exchange -> {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                methodNotAllowed(exchange);
+                return;
+            }
+            byte[] body = readBody(exchange, INTROSPECT_MAX_BYTES);
+            if (body == null) return;
+            String[] tokens = new String(body, StandardCharsets.US_ASCII).split("\\r?\\n");
+            StringBuilder json = new StringBuilder(tokens.length * 96).append('[');
+            int count = 0;
+            for (String token : tokens) {
+                token = token.trim();
+                if (token.isEmpty()) continue;
+                if (++count > INTROSPECT_MAX_TOKENS) {
+                    writeText(exchange, 413, "at most " + INTROSPECT_MAX_TOKENS + " tokens per request");
+                    return;
+                }
+                DecodedJWT jwt = tokenCache != null ? tokenCache.verify(token) : JwtUtil.verifyOrNull(token);
+                if (count > 1) json.append(',');
+                appendIntrospection(json, jwt);
+            }
+            byte[] bytes = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().add("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+
         // (옵션) GET /home -> 여전히 8080 내에서 세션 테스트용
-        server.createContext("/home", exchange -> {
+        route(server, "/home", exchange -> {
             if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
                 methodNotAllowed(exchange);
                 return;
@@ -245,41 +699,20 @@ public class SimpleAuthServer {
                 redirect(exchange, "/login");
                 return;
             }
-            String body = """
-                    <html>
-                    <head>
-                      <meta charset='utf-8'/>
-                      <link rel='stylesheet' href='/static/style.css'/>
-                      <title>Home</title>
-                    </head>
-                    <body>
-                      <div class='container'>
-                        <h1>Welcome, %s</h1>
-                        <p>8080 서버의 /home 페이지입니다.</p>
-                        <form method='POST' action='/api/logout'>
-                          <button type='submit'>로그아웃</button>
-                        </form>
-                      </div>
-                    </body>
-                    </html>
-                    """.formatted(escapeHtml(user.getUsername()));
-            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
-            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
-            exchange.sendResponseHeaders(200, bytes.length);
-            try (OutputStream os = exchange.getResponseBody()) {
-                os.write(bytes);
-            }
+            HOME_PAGE.render(exchange, PRIVATE_PAGE_CACHE, user.getUsername());
         });
 
         // POST /api/logout -> 로그아웃
-        server.createContext("/api/logout", exchange -> {
+        route(server, "/api/logout", exchange -> {
             if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
                 methodNotAllowed(exchange);
                 return;
             }
             String sessionId = resolveSessionId(exchange);
             if (sessionId != null) {
-                SESSION_STORE.remove(sessionId);
+                if (SESSION_STORE != null) {
+                    SESSION_STORE.remove(sessionId);
+                }
                 exchange.getResponseHeaders().add(
                         "Set-Cookie",
                         SESSION_COOKIE_NAME + "=; Path=/; Max-Age=0; Path=/"
@@ -290,27 +723,425 @@ public class SimpleAuthServer {
                     "Set-Cookie",
                     JWT_COOKIE_NAME + "=; Path=/; Max-Age=0;"
             );
+            // refresh token 계열 폐기 (남은 access token 은 만료될 때까지 유효)
+            String refreshToken = RequestParsers.findCookie(exchange.getRequestHeaders().get("Cookie"), REFRESH_COOKIE_NAME);
+            if (refreshToken != null) {
+                REFRESH_TOKENS.revoke(refreshToken);
+                exchange.getResponseHeaders().add("Set-Cookie", REFRESH_COOKIE_NAME + "=; Path=/api; Max-Age=0");
+            }
 
             redirect(exchange, "/login");
         });
 
         server.start();
-        System.out.println("Server started at http://localhost:8080");
+        int port = server.getAddress().getPort();
+        System.out.println("Server started at http://localhost:" + port);
+        boolean dbReachable;
+        if (WARMUP) {
+            long start = System.nanoTime();
+            dbReachable = warmUp(pool, repository, userRepository, passwordHasher, port);
+            double warmupSeconds = (System.nanoTime() - start) / 1e9;
+            Metrics.gauge("startup_warmup_seconds", "Time spent in warm-up before /ready", () -> warmupSeconds);
+            System.out.printf("Warm-up finished in %.0f ms%n", warmupSeconds * 1000);
+        } else {
+            dbReachable = checkDatabase(pool, repository);
+        }
+        if (dbReachable) {
+            markReady();
+        } else {
+            // DB 없이 200 을 주면 로드밸런서가 로그인이 모두 실패하는 노드로 트래픽을 보낸다
+            notReadyReason = "database unavailable";
+            Thread.ofVirtual().name("ready-db-check").start(() -> {
+                try {
+                    do {
+                        TimeUnit.SECONDS.sleep(WARMUP_DB_RETRY_SECONDS);
+                    } while (!checkDatabase(pool, repository));
+                    markReady();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        if (WARMUP_EXIT) {
+            System.exit(0);
+        }
+        return server;
     }
 
-    // ========= 리소스/응답 헬퍼 =========
+    private static void markReady() {
+        ready = true;
+        double readySeconds = ManagementFactory.getRuntimeMXBean().getUptime() / 1e3;
+        Metrics.gauge("startup_ready_seconds", "JVM start to /ready", () -> readySeconds);
+        System.out.printf("Ready %.0f ms after JVM start%n", readySeconds * 1000);
+    }
 
-    private static void serveResource(HttpExchange exchange, String resourcePath, String contentType) throws IOException {
-        InputStream is = SimpleAuthServer.class.getClassLoader().getResourceAsStream(resourcePath);
-        if (is == null) {
-            notFound(exchange);
+    // 풀을 최소한으로 채우고 가장 안쪽 저장소로 조회 한 번 (캐시/블룸 필터를 거치면 DB 까지 안 갈 수 있다)
+    private static boolean checkDatabase(ConnectionPool pool, UserRepository repository) {
+        try {
+            if (pool != null) {
+                pool.prefill(Math.min(2, DB_POOL_SIZE));
+            }
+            repository.findByUsername("__ready__");
+            return true;
+        } catch (Exception e) {
+            System.out.println("Readiness: database check failed: " + e);
+            return false;
+        }
+    }
+
+    /*
+    트래픽을 받기 전에 첫 요청들이 치르던 비용을 미리 치른다
+     - DB: 풀을 db.pool.size 까지 채우고 조회 SQL 을 반복 (드라이버 클래스 로딩, 서버 측 prepared statement)
+     - BCrypt/JWT/폼·쿠키 파서/서명 세션/HTML 템플릿: 같은 코드를 반복해서 JIT 컴파일 (지표에는 기록하지 않는다)
+     - HTTP: 자기 자신에게 GET 요청 (HttpServer, 핸들러, 정적 리소스, 계측 경로)
+       로그인 POST 는 보내지 않는다 (로그인 제한/감사 로그에 남지 않도록), 라우트 지표에는 이 GET 들이 포함된다
+    DB 를 뺀 단계는 실패해도 오류만 출력하고 넘어간다 (데우기는 최적화일 뿐).
+    DB 단계가 실패하면 false: 호출자는 DB 가 응답할 때까지 ready 로 두지 않는다.
+    inner 는 가장 안쪽 저장소(첫 조회가 DB 까지 가도록), repository 는 캐시/블룸 필터까지 씌운 것
+     */
+    private static boolean warmUp(ConnectionPool pool, UserRepository inner, UserRepository repository,
+                                  PasswordHasher hasher, int port) {
+        int rounds = Math.max(1, WARMUP_ITERATIONS / 10);
+        StringBuilder report = new StringBuilder("Warm-up steps:");
+        long step = System.nanoTime();
+        boolean dbReachable = true;
+        try {
+            if (pool != null) {
+                pool.prefill(DB_POOL_SIZE);
+            }
+            inner.findByUsername("__warmup__");
+            for (int i = 0; i < rounds; i++) {
+                repository.findByUsername("__warmup__");
+            }
+        } catch (Exception e) {
+            dbReachable = false;
+            System.out.println("Warm-up: DB step failed: " + e);
+        }
+        step = warmUpStep(report, "db", step);
+        hasher.warmUp(rounds);
+        step = warmUpStep(report, "bcrypt", step);
+        JwtUtil.warmUp(WARMUP_ITERATIONS);
+        step = warmUpStep(report, "jwt", step);
+        try {
+            User user = new User();
+            user.setId(0L);
+            user.setUsername("__warmup__");
+            user.setRole("user");
+            byte[] form = "username=warm%20up&password=p%40ss+word&role=user".getBytes(StandardCharsets.UTF_8);
+            List<String> cookies = List.of("APP_AUTH=1; SESSION_ID=abc; " + JWT_COOKIE_NAME + "=x.y.z");
+            StringBuilder json = new StringBuilder();
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                RequestParsers.parseForm(new ByteArrayInputStream(form), FORM_MAX_BYTES,
+                        "username", "password", "role");
+                RequestParsers.findCookie(cookies, SESSION_COOKIE_NAME);
+                if (SESSION_CODEC != null) {
+                    SESSION_CODEC.decode(SESSION_CODEC.encode(user));
+                }
+                json.setLength(0);
+                appendJsonString(json, user.getUsername());
+                HOME_PAGE.renderTo(OutputStream.nullOutputStream(), (i & 1) == 0, "<warm & up>");
+                INDEX_PAGE.renderTo(OutputStream.nullOutputStream(), (i & 1) == 0, "<warm & up>");
+            }
+        } catch (IOException e) {
+            System.out.println("Warm-up: parser step failed: " + e);
+        }
+        step = warmUpStep(report, "parsers", step);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String base = "http://127.0.0.1:" + port;
+        List<HttpRequest> requests = List.of(
+                HttpRequest.newBuilder(URI.create(base + "/login")).build(),
+                HttpRequest.newBuilder(URI.create(base + "/static/style.css"))
+                        .header("Accept-Encoding", "gzip").build(),
+                HttpRequest.newBuilder(URI.create(base + "/static/app.js")).build(),
+                HttpRequest.newBuilder(URI.create(base + "/index")).build(),
+                HttpRequest.newBuilder(URI.create(base + "/ready")).build());
+        try {
+            for (int i = 0; i < rounds; i++) {
+                for (HttpRequest request : requests) {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Warm-up: HTTP step failed: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Metrics.scrape();
+        warmUpStep(report, "http", step);
+        System.out.println(report);
+        return dbReachable;
+    }
+
+    private static long warmUpStep(StringBuilder report, String name, long start) {
+        long now = System.nanoTime();
+        report.append(' ').append(name).append('=').append((now - start) / 1_000_000).append("ms");
+        return now;
+    }
+
+    // MariaDB 전용 연결 옵션은 MariaDB URL 에만 붙인다 (db.url 로 다른 DB 를 가리킬 때 깨지지 않도록)
+    private static String mariadbOption(String url, String option) {
+        if (!url.startsWith("jdbc:mariadb:")) {
+            return url;
+        }
+        return url + (url.indexOf('?') < 0 ? "?" : "&") + option;
+    }
+
+    private static StaticResourceCache loadResources() {
+        try {
+            return StaticResourceCache.load(SimpleAuthServer.class.getClassLoader(), "web");
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot load static resources", e);
+        }
+    }
+
+    private static HtmlTemplate loadTemplate(String resourcePath) {
+        try {
+            return HtmlTemplate.load(SimpleAuthServer.class.getClassLoader(), resourcePath, "username");
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot load template " + resourcePath, e);
+        }
+    }
+
+    private static SessionStore createSessionStore() {
+        long idleMillis = SESSION_IDLE_MS;
+        long absoluteMillis = SESSION_ABSOLUTE_MS;
+        switch (SESSION_MODE) {
+            case "signed":
+                return null;
+            case "memory":
+                return new InMemorySessionStore(idleMillis, absoluteMillis,
+                        Integer.parseInt(config("session.maxEntries", "100000")),
+                        Long.parseLong(config("session.sweepSeconds", "30")) * 1000);
+            case "mapped":
+                try {
+                    return new MappedSessionStore(Path.of(config("session.file", "sessions.dat")),
+                            Integer.parseInt(config("session.capacity", "262144")), idleMillis, absoluteMillis);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("cannot open session file", e);
+                }
+            default:
+                throw new IllegalArgumentException("unknown session.store: " + SESSION_MODE);
+        }
+    }
+
+    private static SignedSessionCodec createSessionCodec() {
+        if (!"signed".equals(SESSION_MODE)) {
+            return null;
+        }
+        String secret = config("session.secret", "");
+        byte[] key;
+        if (secret.isEmpty()) {
+            // 인스턴스마다 키가 달라지므로 단일 서버에서만 동작한다
+            System.err.println("session.secret is not set; using a random key (sessions end on restart"
+                    + " and are not shared between instances)");
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        return new SignedSessionCodec(key, SESSION_IDLE_MS, SESSION_ABSOLUTE_MS);
+    }
+
+    // 현재 cost, 재해시 결과, users 테이블의 cost 분포 (분포는 GROUP BY 쿼리라 주기적으로만 갱신)
+    private static void registerBcryptGauges(JdbcUserRepository jdbcRepository, AuthService authService,
+                                             PasswordHasher hasher) {
+        Metrics.gauge("bcrypt_cost", "BCrypt cost used for new hashes", hasher::getCost);
+        Metrics.gauge("bcrypt_rehash_total", "Stored hashes upgraded to the current cost after login",
+                authService::getRehashedCount);
+        Metrics.gauge("bcrypt_rehash_skipped_total", "Rehashes skipped (pool busy or password changed)",
+                authService::getRehashSkippedCount);
+        Metrics.gauge("bcrypt_rehash_failed_total", "Rehashes that failed", authService::getRehashFailedCount);
+        if (BCRYPT_COST_STATS_MINUTES <= 0 || jdbcRepository == null) {
             return;
         }
-        byte[] bytes = is.readAllBytes();
-        exchange.getResponseHeaders().add("Content-Type", contentType);
-        exchange.sendResponseHeaders(200, bytes.length);
-        try (OutputStream os = exchange.getResponseBody()) {
-            os.write(bytes);
+        Map<String, Long> distribution = new ConcurrentHashMap<>();
+        Metrics.gaugeFamily("bcrypt_user_hashes", "Users by stored BCrypt cost", "cost", () -> distribution);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bcrypt-cost-stats");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                Map<Integer, Long> counts = jdbcRepository.countByHashCost();
+                distribution.keySet().removeIf(cost -> !counts.containsKey(Integer.valueOf(cost)));
+                counts.forEach((cost, n) -> distribution.put(String.valueOf(cost), n));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, 0, BCRYPT_COST_STATS_MINUTES, TimeUnit.MINUTES);
+    }
+
+    // audit.sink=off 면 null
+    private static AuditLog createAuditLog() throws Exception {
+        List<AuditLog.Sink> sinks = new ArrayList<>();
+        if ("file".equals(AUDIT_SINK) || "both".equals(AUDIT_SINK)) {
+            sinks.add(new FileAuditSink(Path.of(AUDIT_DIR), AUDIT_SEGMENT_BYTES, AUDIT_MAX_SEGMENTS, AUDIT_FSYNC));
+        }
+        if ("jdbc".equals(AUDIT_SINK) || "both".equals(AUDIT_SINK)) {
+            // 로그인 요청이 쓰는 풀과 따로: 감사 INSERT 가 로그인 커넥션을 기다리게 하지 않는다
+            // (Connector/J 3.x 는 rewriteBatchedStatements 를 무시하고 배치를 기본으로 pipeline 해서 보낸다)
+            sinks.add(new JdbcAuditSink(new ConnectionPool(DB_URL, DB_USER, DB_PASSWORD, 1)));
+        }
+        if (sinks.isEmpty()) {
+            return null;
+        }
+        AuditLog auditLog = new AuditLog(sinks.size() == 1 ? sinks.get(0) : AuditLog.tee(sinks),
+                AUDIT_BUFFER, AUDIT_BATCH_SIZE, AUDIT_FLUSH_MS);
+        // 종료 시 버퍼에 남은 이벤트를 마저 쓴다
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                auditLog.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "audit-shutdown"));
+        return auditLog;
+    }
+
+    private static void registerAuditGauges(AuditLog auditLog) {
+        if (auditLog == null) {
+            return;
+        }
+        Metrics.gauge("audit_enqueued_total", "Audit events accepted into the ring buffer", auditLog::getEnqueuedCount);
+        Metrics.gauge("audit_dropped_total", "Audit events dropped because the ring buffer was full",
+                auditLog::getDroppedCount);
+        Metrics.gauge("audit_written_total", "Audit events written by the sink", auditLog::getWrittenCount);
+        Metrics.gauge("audit_failed_total", "Audit events lost to sink errors", auditLog::getFailedCount);
+        Metrics.gauge("audit_batches_total", "Audit sink writes", auditLog::getBatchCount);
+        Metrics.gauge("audit_backlog", "Audit events waiting in the ring buffer", auditLog::getBacklog);
+    }
+
+    // 원격 주소가 login.trustedProxies 에 있으면 X-Forwarded-For 의 가장 오른쪽 신뢰하지 않는 주소
+    // (왼쪽 값은 클라이언트가 마음대로 넣을 수 있으므로 믿지 않는다)
+    static String clientIp(HttpExchange exchange) {
+        String remote = exchange.getRemoteAddress().getAddress().getHostAddress();
+        if (!TRUSTED_PROXIES.contains(remote)) {
+            return remote;
+        }
+        List<String> forwarded = exchange.getRequestHeaders().get("X-Forwarded-For");
+        if (forwarded == null) {
+            return remote;
+        }
+        for (int h = forwarded.size() - 1; h >= 0; h--) {
+            String[] hops = forwarded.get(h).split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!hop.isEmpty() && !TRUSTED_PROXIES.contains(hop)) {
+                    return hop;
+                }
+            }
+        }
+        return remote;
+    }
+
+    private static TokenBucketLimiter createLimiter(int burst, double perMinute) {
+        if (burst <= 0) {
+            return null;
+        }
+        return new TokenBucketLimiter(burst, perMinute / 60.0, LOGIN_THROTTLE_MAX_KEYS, 60_000);
+    }
+
+    private static void registerLimiterGauges(String prefix, TokenBucketLimiter limiter) {
+        if (limiter == null) return;
+        Metrics.gauge(prefix + "_throttle_keys", "Tracked rate limit buckets", limiter::size);
+        Metrics.gauge(prefix + "_throttle_allowed_total", "Requests allowed by the rate limiter", limiter::getAllowedCount);
+        Metrics.gauge(prefix + "_throttle_rejected_total", "Requests rejected with 429", limiter::getRejectedCount);
+        Metrics.gauge(prefix + "_throttle_evicted_total", "Buckets dropped as idle or least recently used",
+                limiter::getEvictedCount);
+    }
+
+    // 기존 컴포넌트의 지표를 /metrics 에 노출 (사용하지 않는 컴포넌트는 null)
+    private static void registerGauges(ConnectionPool pool, CachingUserRepository cache,
+                                       BloomFilterUserRepository bloom, PasswordHasher hasher,
+                                       VerifiedTokenCache tokens) {
+        if (pool != null) {
+            Metrics.gauge("db_pool_active_connections", "Connections currently leased", pool::getActiveCount);
+            Metrics.gauge("db_pool_idle_connections", "Idle pooled connections", pool::getIdleCount);
+            Metrics.gauge("db_pool_borrow_total", "Connection borrows", pool::getBorrowCount);
+            Metrics.gauge("db_pool_timeout_total", "Borrows that timed out", pool::getTimeoutCount);
+            Metrics.gauge("db_pool_wait_seconds_total", "Total time spent waiting for a connection",
+                    () -> pool.getTotalWaitNanos() / 1e9);
+        }
+        if (SESSION_STORE != null) {
+            Metrics.gauge("session_store_size", "Live sessions", SESSION_STORE::size);
+        }
+        if (SESSION_STORE instanceof InMemorySessionStore memory) {
+            Metrics.gauge("session_evictions_total", "Sessions evicted by LRU", memory::getEvictionCount);
+            Metrics.gauge("session_expirations_total", "Sessions expired", memory::getExpirationCount);
+        }
+        if (cache != null) {
+            Metrics.gauge("user_cache_size", "Cached users", cache::size);
+            Metrics.gauge("user_cache_hits_total", "User cache hits", cache::getHitCount);
+            Metrics.gauge("user_cache_negative_hits_total", "User cache negative hits", cache::getNegativeHitCount);
+            Metrics.gauge("user_cache_misses_total", "User cache misses", cache::getMissCount);
+            Metrics.gauge("user_cache_loads_total", "User cache loads from the repository", cache::getLoadCount);
+        }
+        if (bloom != null) {
+            Metrics.gauge("user_bloom_definite_misses_total", "Lookups rejected by the Bloom filter",
+                    bloom::getDefiniteMissCount);
+            Metrics.gauge("user_bloom_passed_total", "Lookups passed to the repository", bloom::getPassedThroughCount);
+            Metrics.gauge("user_bloom_estimated_fpp", "Estimated Bloom filter false positive rate",
+                    () -> bloom.getFilter() == null ? 0 : bloom.getFilter().getEstimatedFpp());
+        }
+        Metrics.gauge("load_shed_total", "Expensive requests rejected with 503 by the load shedder",
+                LOAD_SHEDDER::getShedCount);
+        Metrics.gauge("load_shed_overloaded",
+                "1 while expensive-request queue delay has stayed above target for an interval",
+                () -> LOAD_SHEDDER.isOverloaded() ? 1 : 0);
+        Metrics.gauge("load_shed_expensive_running", "Expensive requests holding an admission permit",
+                LOAD_SHEDDER::getExpensiveRunning);
+        Metrics.gauge("load_shed_expensive_waiting", "Expensive requests waiting for an admission permit",
+                LOAD_SHEDDER::getExpensiveWaiting);
+        Metrics.gauge("bcrypt_completed_total", "BCrypt operations completed", hasher::getCompletedCount);
+        Metrics.gauge("bcrypt_rejected_total", "BCrypt operations rejected (queue full)", hasher::getRejectedCount);
+        Metrics.gauge("bcrypt_queued", "BCrypt operations waiting in the queue", hasher::getQueuedCount);
+        Metrics.gauge("refresh_tokens_issued_total", "Refresh token families created at login",
+                REFRESH_TOKENS::getIssuedCount);
+        Metrics.gauge("refresh_tokens_rotated_total", "Successful refreshes", REFRESH_TOKENS::getRotatedCount);
+        Metrics.gauge("refresh_tokens_reused_total", "Refresh token reuse detections", REFRESH_TOKENS::getReusedCount);
+        Metrics.gauge("refresh_tokens_invalid_total", "Unknown, expired or revoked refresh tokens",
+                REFRESH_TOKENS::getInvalidCount);
+        Metrics.gauge("refresh_token_families", "Live refresh token families (logins)", REFRESH_TOKENS::familyCount);
+        Metrics.gauge("refresh_token_families_evicted_total", "Families revoked to stay under refresh.maxFamilies",
+                REFRESH_TOKENS::getEvictedCount);
+        if (tokens != null) {
+            Metrics.gauge("token_cache_size", "Verified tokens cached", tokens::size);
+            Metrics.gauge("token_cache_hits_total", "Token verifications served from cache", tokens::getHitCount);
+            Metrics.gauge("token_cache_misses_total", "Token verifications that ran the HMAC check", tokens::getMissCount);
+            Metrics.gauge("token_rejected_total", "Tokens that failed verification", tokens::getRejectedCount);
+        }
+    }
+
+    // virtual 은 요청 스레드에서 직접 계산, 나머지는 전용 풀 + 대기열 상한 (ExecutorLoadTest 도 같은 구성)
+    static PasswordHasher createHasher(String mode, int cost, int threads, int queueCapacity) {
+        return "virtual".equals(mode) ? new PasswordHasher(cost) : PasswordHasher.bounded(cost, threads, queueCapacity);
+    }
+
+    static ExecutorService createExecutor(String mode, int threads, int queueCapacity) {
+        switch (mode) {
+            case "platform":
+                return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+            case "virtual":
+            case "hybrid":
+                return Executors.newVirtualThreadPerTaskExecutor();
+            default:
+                throw new IllegalArgumentException("unknown server.executor: " + mode);
+        }
+    }
+
+    // ========= 리소스/응답 헬퍼 =========
+
+    // 경로별 지표(요청 수, 상태 코드, 대기/처리 시간)를 기록하고, 과부하 시 비싼 경로는 503 으로 차단
+    private static void route(HttpServer server, String path, HttpHandler handler) {
+        server.createContext(path, Metrics.instrument(path,
+                LOAD_SHEDDER.guard(SHEDDABLE_ROUTES.contains(path), handler)));
+    }
+
+    private static void serveResource(HttpExchange exchange, String resourcePath, String cacheControl) throws IOException {
+        if (!RESOURCES.serve(exchange, resourcePath, cacheControl)) {
+            notFound(exchange);
         }
     }
 
@@ -337,21 +1168,110 @@ public class SimpleAuthServer {
         writeText(exchange, 404, "Not Found");
     }
 
-    private static Map<String, String> parseFormBody(HttpExchange exchange) throws IOException {
-        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-        Map<String, String> params = new HashMap<>();
-        for (String pair : body.split("&")) {
-            if (pair.isEmpty()) continue;
-            String[] kv = pair.split("=", 2);
-            String key = urlDecode(kv[0]);
-            String value = kv.length > 1 ? urlDecode(kv[1]) : "";
-            params.put(key, value);
+    private static void tooManyRequests(HttpExchange exchange, long waitNanos) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        exchange.getResponseHeaders().add("Retry-After", String.valueOf(seconds));
+        writeText(exchange, 429, "Too Many Requests");
+    }
+
+    private static void serviceUnavailable(HttpExchange exchange, long retryAfterSeconds) throws IOException {
+        exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+        writeText(exchange, 503, "Service Unavailable");
+    }
+
+    // /api 아래로만 전송 (refresh 와 logout 에서 필요), 스크립트에서 읽을 수 없도록 HttpOnly
+    private static String refreshCookie(String token) {
+        return REFRESH_COOKIE_NAME + "=" + token + "; Path=/api; Max-Age=" + REFRESH_ABSOLUTE_MS / 1000
+                + "; HttpOnly; SameSite=Strict";
+    }
+
+    // 본문 전체를 읽는다. maxBytes 를 넘으면 413 을 보내고 null
+    private static byte[] readBody(HttpExchange exchange, int maxBytes) throws IOException {
+        byte[] body = exchange.getRequestBody().readNBytes(maxBytes + 1);
+        if (body.length > maxBytes) {
+            writeText(exchange, 413, "request body too large");
+            return null;
         }
-        return params;
+        return body;
     }
 
-    private static String urlDecode(String s) {
-        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    private static void appendIntrospection(StringBuilder json, DecodedJWT jwt) {
+        if (jwt == null) {
+            json.append("{\"active\":false}");
+            return;
+        }
+        json.append("{\"active\":true,\"sub\":");
+        appendJsonString(json, jwt.getSubject());
+        json.append(",\"username\":");
+        appendJsonString(json, jwt.getClaim("username").asString());
+        json.append(",\"iat\":").append(jwt.getIssuedAt().getTime() / 1000)
+                .append(",\"exp\":").append(jwt.getExpiresAt().getTime() / 1000).append('}');
+    }
+
+    static void appendJsonString(StringBuilder json, String s) {
+        if (s == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    // 필요한 필드만 읽는다. 본문이 너무 크면 413 을 보내고 null
+    private static String[] readForm(HttpExchange exchange, String... names) throws IOException {
+        try {
+            return RequestParsers.parseForm(exchange.getRequestBody(), FORM_MAX_BYTES, names);
+        } catch (RequestParsers.FormTooLargeException e) {
+            writeText(exchange, 413, "request body too large");
+            return null;
+        }
+    }
+
+    // "a, b,c" -> {a, b, c} (빈 값은 빈 집합)
+    static Set<String> csvSet(String value) {
+        Set<String> set = new HashSet<>();
+        for (String v : value.split(",")) {
+            if (!v.isBlank()) {
+                set.add(v.trim());
+            }
+        }
+        return Set.copyOf(set);
+    }
+
+    // 시스템 프로퍼티(-Ddb.pool.size=..) > 환경변수(DB_POOL_SIZE) > config.file > 기본값 순으로 설정을 읽는다
+    static String config(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = System.getenv(key.replace('.', '_').toUpperCase());
+        }
+        if (value == null && FILE_CONFIG != null) {
+            value = FILE_CONFIG.getProperty(key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    private static Properties loadConfigFile() {
+        String file = System.getProperty("config.file", System.getenv("CONFIG_FILE"));
+        Properties properties = new Properties();
+        if (file == null || file.isBlank()) {
+            return properties;
+        }
+        try (BufferedReader in = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read config file " + file, e);
+        }
+        return properties;
     }
 
     private static boolean isBlank(String s) {
@@ -359,33 +1279,27 @@ public class SimpleAuthServer {
     }
 
     private static String resolveSessionId(HttpExchange exchange) {
-        List<String> cookies = exchange.getRequestHeaders().get("Cookie");
-        if (cookies == null) return null;
-        for (String header : cookies) {
-            String[] parts = header.split(";\\s*");
-            for (String part : parts) {
-                String[] kv = part.split("=", 2);
-                if (kv.length == 2 && SESSION_COOKIE_NAME.equals(kv[0])) {
-                    return kv[1];
-                }
-            }
-        }
-        return null;
+        return RequestParsers.findCookie(exchange.getRequestHeaders().get("Cookie"), SESSION_COOKIE_NAME);
     }
 
     private static User resolveUser(HttpExchange exchange) {
         String sessionId = resolveSessionId(exchange);
         if (sessionId == null) return null;
-        return SESSION_STORE.get(sessionId);
+        if (SESSION_CODEC == null) {
+            return SESSION_STORE.get(sessionId);
+        }
+        SignedSessionCodec.Session session = SESSION_CODEC.decode(sessionId);
+        if (session == null) return null;
+        // idle 만료 연장: 응답을 보내기 전에 불리므로 새 쿠키를 같이 내려보낼 수 있다
+        String renewed = SESSION_CODEC.renew(session);
+        if (renewed != null) {
+            exchange.getResponseHeaders().add("Set-Cookie", sessionCookie(renewed));
+        }
+        return session.user();
     }
 
-    private static String escapeHtml(String s) {
-        if (s == null) return "";
-        return s.replace("&", "&amp;")
-                .replace("<", "&lt;")
-                .replace(">", "&gt;")
-                .replace("\"", "&quot;")
-                .replace("'", "&#39;");
+    private static String sessionCookie(String value) {
+        return SESSION_COOKIE_NAME + "=" + value + "; Path=/; HttpOnly; SameSite=Lax";
     }
 
     // ========= 도메인 / 레포지토리 / 서비스 =========
@@ -412,17 +1326,52 @@ public class SimpleAuthServer {
     public interface UserRepository {
         void save(User user) throws Exception;
         User findByUsername(String username) throws Exception;
+
+        // 여러 사용자를 한 번에 저장. 결과[i] 가 false 면 username 중복으로 건너뛴 행
+        default boolean[] saveAll(List<User> users) throws Exception {
+            boolean[] saved = new boolean[users.size()];
+            for (int i = 0; i < users.size(); i++) {
+                try {
+                    save(users.get(i));
+                    saved[i] = true;
+                } catch (SQLIntegrityConstraintViolationException dup) {
+                    // 중복은 건너뛰고 계속
+                }
+            }
+            return saved;
+        }
+
+        // 저장된 해시가 아직 user.getPassword() 일 때만 newHash 로 바꾼다 (그 사이 비밀번호가 바뀌었으면 false)
+        // 로그인 성공 시 재해시가 부르므로 모든 구현이 compare-and-set 으로 구현해야 한다
+        boolean updatePassword(User user, String newHash) throws Exception;
     }
 
     public static class JdbcUserRepository implements UserRepository {
+        private static final String INSERT_SQL = "INSERT INTO users(username, password, role) VALUES(?, ?, ?)";
+        private static final String SELECT_BY_USERNAME_SQL = "SELECT id, username, password, role FROM users WHERE username = ?";
+        private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+        // "$2a$12$..." 의 12
+        private static final String COUNT_BY_HASH_COST_SQL =
+                "SELECT SUBSTRING(password, 5, 2), COUNT(*) FROM users GROUP BY SUBSTRING(password, 5, 2)";
+
         private final String url;
         private final String user;
         private final String password;
+        // null 이면 기존처럼 호출마다 DriverManager 로 새 연결
+        private final ConnectionPool pool;
 
         public JdbcUserRepository(String url, String user, String password) {
             this.url = url;
             this.user = user;
             this.password = password;
+            this.pool = null;
+        }
+
+        public JdbcUserRepository(ConnectionPool pool) {
+            this.url = null;
+            this.user = null;
+            this.password = null;
+            this.pool = pool;
         }
 
         private Connection getConnection() throws SQLException {
@@ -431,83 +1380,395 @@ public class SimpleAuthServer {
 
         @Override
         public void save(User u) throws Exception {
-            String sql = "INSERT INTO users(username, password, role) VALUES(?, ?, ?)";
-            try (Connection conn = getConnection();
-                 PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setString(1, u.getUsername());
-                ps.setString(2, u.getPassword());
-                ps.setString(3, u.getRole());
-                ps.executeUpdate();
-                try (ResultSet rs = ps.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        u.setId(rs.getLong(1));
+            if (pool != null) {
+                try (ConnectionPool.Lease lease = pool.borrow()) {
+                    try {
+                        insert(lease.prepare(INSERT_SQL, Statement.RETURN_GENERATED_KEYS), u);
+                    } catch (SQLException e) {
+                        invalidateIfBroken(lease, e);
+                        throw e;
                     }
                 }
+                return;
+            }
+            try (Connection conn = getConnection();
+                 PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                insert(ps, u);
             }
         }
 
         @Override
         public User findByUsername(String username) throws Exception {
-            String sql = "SELECT id, username, password, role FROM users WHERE username = ?";
+            if (pool != null) {
+                try (ConnectionPool.Lease lease = pool.borrow()) {
+                    try {
+                        return selectByUsername(lease.prepare(SELECT_BY_USERNAME_SQL), username);
+                    } catch (SQLException e) {
+                        invalidateIfBroken(lease, e);
+                        throw e;
+                    }
+                }
+            }
             try (Connection conn = getConnection();
-                 PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, username);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        User u = new User();
-                        u.setId(rs.getLong("id"));
-                        u.setUsername(rs.getString("username"));
-                        u.setPassword(rs.getString("password"));
-                        u.setRole(rs.getString("role"));
-                        return u;
+                 PreparedStatement ps = conn.prepareStatement(SELECT_BY_USERNAME_SQL)) {
+                return selectByUsername(ps, username);
+            }
+        }
+
+        @Override
+        public boolean updatePassword(User u, String newHash) throws Exception {
+            if (pool != null) {
+                try (ConnectionPool.Lease lease = pool.borrow()) {
+                    try {
+                        return updatePassword(lease.prepare(UPDATE_PASSWORD_SQL), u, newHash);
+                    } catch (SQLException e) {
+                        invalidateIfBroken(lease, e);
+                        throw e;
+                    }
+                }
+            }
+            try (Connection conn = getConnection();
+                 PreparedStatement ps = conn.prepareStatement(UPDATE_PASSWORD_SQL)) {
+                return updatePassword(ps, u, newHash);
+            }
+        }
+
+        private static boolean updatePassword(PreparedStatement ps, User u, String newHash) throws SQLException {
+            ps.setString(1, newHash);
+            ps.setLong(2, u.getId());
+            ps.setString(3, u.getPassword());
+            return ps.executeUpdate() == 1;
+        }
+
+        // BCrypt cost 별 사용자 수 (cost -> 명), 형식을 알 수 없는 해시는 빼고 센다
+        public Map<Integer, Long> countByHashCost() throws Exception {
+            if (pool != null) {
+                try (ConnectionPool.Lease lease = pool.borrow()) {
+                    return countByHashCost(lease.connection());
+                }
+            }
+            try (Connection conn = getConnection()) {
+                return countByHashCost(conn);
+            }
+        }
+
+        private static Map<Integer, Long> countByHashCost(Connection conn) throws SQLException {
+            Map<Integer, Long> counts = new TreeMap<>();
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(COUNT_BY_HASH_COST_SQL)) {
+                while (rs.next()) {
+                    try {
+                        counts.merge(Integer.parseInt(rs.getString(1)), rs.getLong(2), Long::sum);
+                    } catch (NumberFormatException | NullPointerException ignored) {
+                        // BCrypt 형식이 아닌 값
                     }
                 }
             }
+            return counts;
+        }
+
+        private static void insert(PreparedStatement ps, User u) throws SQLException {
+            ps.setString(1, u.getUsername());
+            ps.setString(2, u.getPassword());
+            ps.setString(3, u.getRole());
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    u.setId(rs.getLong(1));
+                }
+            }
+        }
+
+        private static User selectByUsername(PreparedStatement ps, String username) throws SQLException {
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    User u = new User();
+                    u.setId(rs.getLong("id"));
+                    u.setUsername(rs.getString("username"));
+                    u.setPassword(rs.getString("password"));
+                    u.setRole(rs.getString("role"));
+                    return u;
+                }
+            }
             return null;
         }
+
+        /*
+        JDBC batch 로 한 트랜잭션에 저장한다.
+        이미 있는 username 과 목록 안의 중복은 미리 걸러내고, 그 사이 다른 요청이 같은 username 을
+        넣어서 batch 가 실패하면 롤백 후 한 행씩 다시 넣어 중복 행만 건너뛴다.
+         */
+        @Override
+        public boolean[] saveAll(List<User> users) throws Exception {
+            if (users.isEmpty()) {
+                return new boolean[0];
+            }
+            if (pool != null) {
+                try (ConnectionPool.Lease lease = pool.borrow()) {
+                    try {
+                        return saveAll(lease.connection(), users);
+                    } catch (SQLException e) {
+                        invalidateIfBroken(lease, e);
+                        throw e;
+                    }
+                }
+            }
+            try (Connection conn = getConnection()) {
+                return saveAll(conn, users);
+            }
+        }
+
+        private static boolean[] saveAll(Connection conn, List<User> users) throws SQLException {
+            boolean[] saved = new boolean[users.size()];
+            Set<String> seen = findExistingUsernames(conn, users);
+            List<Integer> pending = new ArrayList<>();
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+                for (int i = 0; i < users.size(); i++) {
+                    User u = users.get(i);
+                    if (!seen.add(u.getUsername())) {
+                        continue;
+                    }
+                    ps.setString(1, u.getUsername());
+                    ps.setString(2, u.getPassword());
+                    ps.setString(3, u.getRole());
+                    ps.addBatch();
+                    pending.add(i);
+                }
+                ps.executeBatch();
+                conn.commit();
+                for (int i : pending) {
+                    saved[i] = true;
+                }
+            } catch (BatchUpdateException race) {
+                conn.rollback();
+                if (race.getSQLState() == null || !race.getSQLState().startsWith("23")) {
+                    throw race;
+                }
+                conn.setAutoCommit(true);
+                try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+                    for (int i : pending) {
+                        User u = users.get(i);
+                        ps.setString(1, u.getUsername());
+                        ps.setString(2, u.getPassword());
+                        ps.setString(3, u.getRole());
+                        try {
+                            ps.executeUpdate();
+                            saved[i] = true;
+                        } catch (SQLIntegrityConstraintViolationException dup) {
+                            // 중복 행만 건너뛴다
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            return saved;
+        }
+
+        private static Set<String> findExistingUsernames(Connection conn, List<User> users) throws SQLException {
+            StringBuilder sql = new StringBuilder("SELECT username FROM users WHERE username IN (");
+            for (int i = 0; i < users.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(")");
+            Set<String> existing = new HashSet<>();
+            try (PreparedStatement ps = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < users.size(); i++) {
+                    ps.setString(i + 1, users.get(i).getUsername());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        existing.add(rs.getString(1));
+                    }
+                }
+            }
+            return existing;
+        }
+
+        // users 테이블의 username 을 스트리밍으로 읽는다 (블룸 필터 구성용, 메모리 사용량 일정)
+        public void forEachUsername(Consumer<String> consumer) throws Exception {
+            String sql = "SELECT username FROM users";
+            if (pool != null) {
+                try (ConnectionPool.Lease lease = pool.borrow()) {
+                    scanUsernames(lease.connection(), sql, consumer);
+                }
+                return;
+            }
+            try (Connection conn = getConnection()) {
+                scanUsernames(conn, sql, consumer);
+            }
+        }
+
+        private static void scanUsernames(Connection conn, String sql, Consumer<String> consumer) throws SQLException {
+            try (Statement st = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                st.setFetchSize(1000);
+                try (ResultSet rs = st.executeQuery(sql)) {
+                    while (rs.next()) {
+                        consumer.accept(rs.getString(1));
+                    }
+                }
+            }
+        }
+
+        // SQLState 08xxx (연결 오류) 이면 커넥션을 풀에 돌려놓지 않는다
+        private static void invalidateIfBroken(ConnectionPool.Lease lease, SQLException e) {
+            String state = e.getSQLState();
+            if (state == null || state.startsWith("08")) {
+                lease.invalidate();
+            }
+        }
     }
 
     public static class AuthService {
+        // 캐시/블룸 필터에서 끝난 조회도 포함하므로 DB 시간이 아니라 "사용자 조회" 시간
+        // BCrypt 구간(bcrypt_hash/bcrypt_check/bcrypt_queue)은 PasswordHasher 가 기록한다
+        private static final LatencyHistogram USER_LOOKUP = Metrics.phase("user_lookup");
+        private static final LatencyHistogram DB_SAVE = Metrics.phase("db_save_user");
+
         private final UserRepository userRepository;
+        private final PasswordHasher passwordHasher;
+        // null 이면 감사 로그 없음
+        private final AuditLog auditLog;
+        // 지금 재해시 중인 username (같은 사용자가 연달아 로그인해도 한 번만)
+        private final Set<String> rehashing = ConcurrentHashMap.newKeySet();
+
+        // ==== METRICS ==== //
+        private final LongAdder rehashed = new LongAdder();
+        private final LongAdder rehashSkipped = new LongAdder();
+        private final LongAdder rehashFailed = new LongAdder();
 
         public AuthService(UserRepository userRepository) {
+            this(userRepository, new PasswordHasher(12));
+        }
+
+        public AuthService(UserRepository userRepository, PasswordHasher passwordHasher) {
+            this(userRepository, passwordHasher, null);
+        }
+
+        public AuthService(UserRepository userRepository, PasswordHasher passwordHasher, AuditLog auditLog) {
             this.userRepository = userRepository;
+            this.passwordHasher = passwordHasher;
+            this.auditLog = auditLog;
         }
+
         // 회원가입
         public void signUp(String username, String rawPassword, String role) throws Exception {
+            signUp(username, rawPassword, role, null);
+        }
+
+        public void signUp(String username, String rawPassword, String role, String clientIp) throws Exception {
             // role 검증: admin 또는 user만 허용
             if (isBlank(role) || (!"admin".equals(role) && !"user".equals(role))) {
+                audit(AuditLog.Type.SIGNUP_FAILURE, username, null, clientIp, "invalid_role");
                 throw new IllegalArgumentException("role must be 'admin' or 'user'");
             }
 
-            User existing = userRepository.findByUsername(username);
+            User existing = findByUsername(username);
             if (existing != null) {
+                audit(AuditLog.Type.SIGNUP_FAILURE, username, existing.getId(), clientIp, "duplicate_username");
                 throw new SQLIntegrityConstraintViolationException("username already exists");
             }
 
             // 비밀번호 해시
-            String hashed = BCrypt.hashpw(rawPassword, BCrypt.gensalt(12));
+            String hashed = passwordHasher.hash(rawPassword);
 
             User u = new User();
             u.setUsername(username);
             u.setPassword(hashed); // 평문 대신 해시를 저장
             u.setRole(role);
-            userRepository.save(u);
+            long start = System.nanoTime();
+            try {
+                userRepository.save(u);
+            } catch (SQLIntegrityConstraintViolationException dup) {
+                audit(AuditLog.Type.SIGNUP_FAILURE, username, null, clientIp, "duplicate_username");
+                throw dup;
+            } finally {
+                DB_SAVE.record(System.nanoTime() - start);
+            }
+            audit(AuditLog.Type.SIGNUP_SUCCESS, username, u.getId(), clientIp, null);
         }
 
         public User login(String username, String rawPassword) throws Exception {
-            User u = userRepository.findByUsername(username);
+            return login(username, rawPassword, null);
+        }
+
+        public User login(String username, String rawPassword, String clientIp) throws Exception {
+            User u = findByUsername(username);
             if (u == null) {
+                audit(AuditLog.Type.LOGIN_FAILURE, username, null, clientIp, "unknown_user");
                 return null; // 사용자 없음
             }
     
             // 해시 검증: rawPassword(입력값) vs u.getPassword()(DB 해시)
-            if (!BCrypt.checkpw(rawPassword, u.getPassword())) {
+            boolean matches = passwordHasher.check(rawPassword, u.getPassword());
+            if (!matches) {
+                audit(AuditLog.Type.LOGIN_FAILURE, username, u.getId(), clientIp, "bad_password");
                 return null; // 비밀번호 불일치
             }
+            audit(AuditLog.Type.LOGIN_SUCCESS, username, u.getId(), clientIp, null);
+
+            // 저장된 해시의 cost 가 지금 설정보다 낮으면 평문을 아는 지금 다시 해시해 둔다 (응답은 기다리지 않음)
+            if (passwordHasher.needsRehash(u.getPassword())) {
+                rehashInBackground(u, rawPassword);
+            }
     
             return u; // 로그인 성공
         }
+
+        private void rehashInBackground(User u, String rawPassword) {
+            User snapshot = new User();
+            snapshot.setId(u.getId());
+            snapshot.setUsername(u.getUsername());
+            snapshot.setPassword(u.getPassword());
+            if (!rehashing.add(snapshot.getUsername())) {
+                return;
+            }
+            Thread.ofVirtual().name("bcrypt-rehash").start(() -> {
+                try {
+                    String newHash = passwordHasher.hash(rawPassword);
+                    if (userRepository.updatePassword(snapshot, newHash)) {
+                        rehashed.increment();
+                    } else {
+                        rehashSkipped.increment(); // 그 사이 비밀번호가 바뀜
+                    }
+                } catch (RejectedExecutionException busy) {
+                    // BCrypt 풀이 바쁘면 로그인 처리가 우선, 다음 로그인 때 다시 시도
+                    rehashSkipped.increment();
+                } catch (Exception e) {
+                    rehashFailed.increment();
+                    e.printStackTrace();
+                } finally {
+                    rehashing.remove(snapshot.getUsername());
+                }
+            });
+        }
+
+        // 링 버퍼에 넣기만 한다 (가득 차면 버려짐), 실제 쓰기는 audit-writer 스레드
+        private void audit(AuditLog.Type type, String username, Long userId, String clientIp, String reason) {
+            if (auditLog != null) {
+                auditLog.record(type, username, userId == null ? 0 : userId, clientIp, reason);
+            }
+        }
+
+        public long getRehashedCount() { return rehashed.sum(); }
+        public long getRehashSkippedCount() { return rehashSkipped.sum(); }
+        public long getRehashFailedCount() { return rehashFailed.sum(); }
+
+        // 캐시/블룸 필터에서 끝난 조회도 포함한 사용자 조회 시간
+        public User findByUsername(String username) throws Exception {
+            long start = System.nanoTime();
+            try {
+                return userRepository.findByUsername(username);
+            } finally {
+                USER_LOOKUP.record(System.nanoTime() - start);
+            }
+        }
     }
 
     // ========= JWT 유틸 =========
@@ -518,16 +1779,64 @@ public class SimpleAuthServer {
         // 임의의 비밀 문자열(시크릿 키)이며, 현재 코드에서는 HMAC256(대칭키 방식)에 쓰이는 공유 비밀키
         private static final Algorithm ALG = Algorithm.HMAC256(SECRET);
         private static final String ISSUER = "simple-auth-server";
+        // access token 수명: 짧게 잡고 refresh token 으로 재발급하면 BCrypt 로그인 횟수가 줄어든다
+        private static final long ACCESS_TTL_SECONDS = Long.parseLong(config("jwt.accessTtlSeconds", "3600"));
+        // 서명, 발급자, exp/iat 를 검사한다. 스레드 안전하므로 하나를 공유
+        private static final JWTVerifier VERIFIER = JWT.require(ALG).withIssuer(ISSUER).build();
+        private static final LatencyHistogram SIGN = Metrics.phase("jwt_sign");
+        private static final LatencyHistogram VERIFY = Metrics.phase("jwt_verify");
 
         public static String createToken(User user) {
-            Instant now = Instant.now();
-            return JWT.create()
-                    .withIssuer(ISSUER)
-                    .withIssuedAt(Date.from(now))
-                    .withExpiresAt(Date.from(now.plus(1, ChronoUnit.HOURS)))
-                    .withSubject(String.valueOf(user.getId()))
-                    .withClaim("username", user.getUsername())
-                    .sign(ALG);
+            long start = System.nanoTime();
+            try {
+                Instant now = Instant.now();
+                return JWT.create()
+                        .withIssuer(ISSUER)
+                        .withIssuedAt(Date.from(now))
+                        .withExpiresAt(Date.from(now.plus(ACCESS_TTL_SECONDS, ChronoUnit.SECONDS)))
+                        .withSubject(String.valueOf(user.getId()))
+                        .withClaim("username", user.getUsername())
+                        .sign(ALG);
+            } finally {
+                SIGN.record(System.nanoTime() - start);
+            }
+        }
+
+        // 서명/검증 코드를 미리 JIT 컴파일한다 (jwt_sign/jwt_verify 지표에는 기록하지 않는다)
+        static void warmUp(int iterations) {
+            for (int i = 0; i < iterations; i++) {
+                Instant now = Instant.now();
+                String token = JWT.create()
+                        .withIssuer(ISSUER)
+                        .withIssuedAt(Date.from(now))
+                        .withExpiresAt(Date.from(now.plus(ACCESS_TTL_SECONDS, ChronoUnit.SECONDS)))
+                        .withSubject(String.valueOf(i))
+                        .withClaim("username", "__warmup__")
+                        .sign(ALG);
+                VERIFIER.verify(token).getClaim("username").asString();
+            }
+        }
+
+        public static long accessTtlSeconds() {
+            return ACCESS_TTL_SECONDS;
+        }
+
+        // 유효하지 않으면 JWTVerificationException (서명 불일치, 만료, 발급자 불일치, 형식 오류)
+        public static DecodedJWT verify(String token) throws JWTVerificationException {
+            long start = System.nanoTime();
+            try {
+                return VERIFIER.verify(token);
+            } finally {
+                VERIFY.record(System.nanoTime() - start);
+            }
+        }
+
+        public static DecodedJWT verifyOrNull(String token) {
+            try {
+                return verify(token);
+            } catch (JWTVerificationException e) {
+                return null;
+            }
         }
     }
 }
@@ -0,0 +1,207 @@
+package com.tech.basic;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+정적 리소스 캐시
+기동 시 지정한 classpath 디렉터리(web/)의 파일을 모두 읽어서 원본 + gzip 본문, ETag 를 미리 만들어 둔다.
+(main/ 의 페이지는 요청마다 HtmlTemplate 으로 렌더링하므로 여기서 읽지 않는다)
+요청 처리 시에는 디스크/jar 를 읽지 않고 Accept-Encoding 에 맞는 본문을 보내거나 If-None-Match 가 맞으면 304 로 응답한다.
+ */
+public class StaticResourceCache {
+
+    // gzip 해도 이득이 적은 작은 파일은 원본만 보낸다
+    private static final int MIN_GZIP_SIZE = 256;
+
+    private final Map<String, Resource> resources;
+
+    private StaticResourceCache(Map<String, Resource> resources) {
+        this.resources = Map.copyOf(resources);
+    }
+
+    public static StaticResourceCache load(ClassLoader loader, String... directories) throws IOException {
+        Map<String, Resource> resources = new HashMap<>();
+        for (String dir : directories) {
+            Enumeration<URL> roots = loader.getResources(dir);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                for (String name : list(root, dir)) {
+                    try (InputStream is = loader.getResourceAsStream(name)) {
+                        if (is != null) {
+                            resources.putIfAbsent(name, new Resource(is.readAllBytes(), contentTypeOf(name)));
+                        }
+                    }
+                }
+            }
+        }
+        return new StaticResourceCache(resources);
+    }
+
+    // 디렉터리(file:) 또는 jar(jar:) 안의 파일 이름을 "web/style.css" 형태로 나열
+    private static List<String> list(URL root, String dir) throws IOException {
+        String prefix = dir.endsWith("/") ? dir : dir + "/";
+        if ("jar".equals(root.getProtocol())) {
+            JarURLConnection conn = (JarURLConnection) root.openConnection();
+            conn.setUseCaches(false);
+            try (JarFile jar = conn.getJarFile()) {
+                return jar.stream()
+                        .filter(e -> !e.isDirectory() && e.getName().startsWith(prefix))
+                        .map(JarEntry::getName)
+                        .toList();
+            }
+        }
+        try {
+            Path base = Path.of(root.toURI());
+            try (Stream<Path> files = Files.walk(base)) {
+                return files.filter(Files::isRegularFile)
+                        .map(p -> prefix + base.relativize(p).toString().replace('\\', '/'))
+                        .toList();
+            }
+        } catch (URISyntaxException e) {
+            throw new IOException("cannot list " + root, e);
+        }
+    }
+
+    static String contentTypeOf(String name) {
+        if (name.endsWith(".html")) return "text/html; charset=utf-8";
+        if (name.endsWith(".css")) return "text/css; charset=utf-8";
+        if (name.endsWith(".js")) return "application/javascript; charset=utf-8";
+        return "application/octet-stream";
+    }
+
+    public boolean contains(String resourcePath) {
+        return resources.containsKey(resourcePath);
+    }
+
+    /*
+    캐시된 리소스를 응답. 없으면 false 를 돌려주고 아무것도 쓰지 않는다.
+    cacheControl 예) 공개 정적 파일 "public, max-age=3600", 로그인 뒤 페이지 "private, no-cache"
+     */
+    public boolean serve(HttpExchange exchange, String resourcePath, String cacheControl) throws IOException {
+        Resource r = resources.get(resourcePath);
+        if (r == null) {
+            return false;
+        }
+        boolean gzip = r.gzip != null && acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        String etag = gzip ? r.gzipEtag : r.etag;
+
+        var headers = exchange.getResponseHeaders();
+        headers.set("ETag", etag);
+        headers.set("Cache-Control", cacheControl);
+        if (r.gzip != null) {
+            headers.set("Vary", "Accept-Encoding");
+        }
+
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return true;
+        }
+
+        byte[] body = gzip ? r.gzip : r.identity;
+        headers.set("Content-Type", r.contentType);
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+        return true;
+    }
+
+    // "gzip", "gzip, deflate, br", "gzip;q=0.8" 허용 / "gzip;q=0" 거부
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String token : acceptEncoding.split(",")) {
+            String t = token.trim();
+            int semi = t.indexOf(';');
+            String coding = semi < 0 ? t : t.substring(0, semi).trim();
+            if (!"gzip".equalsIgnoreCase(coding) && !"*".equals(coding)) continue;
+            double q = 1.0;
+            String param = semi < 0 ? "" : t.substring(semi + 1).trim();
+            if (param.startsWith("q=")) {
+                try {
+                    q = Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    q = 0;
+                }
+            }
+            return q > 0;
+        }
+        return false;
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String token : ifNoneMatch.split(",")) {
+            String t = token.trim();
+            if (t.equals("*") || t.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ========= 캐시 항목 =========
+
+    private static final class Resource {
+        final byte[] identity;
+        final byte[] gzip; // null 이면 gzip 변형 없음
+        final String contentType;
+        final String etag;
+        final String gzipEtag;
+
+        Resource(byte[] identity, String contentType) {
+            this.identity = identity;
+            this.contentType = contentType;
+            byte[] compressed = identity.length >= MIN_GZIP_SIZE ? gzip(identity) : null;
+            this.gzip = compressed != null && compressed.length < identity.length ? compressed : null;
+            // 강한 ETag: 내용 해시, 인코딩별로 서로 다른 값
+            String hash = sha256(identity);
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gz\"";
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out) {{ def.setLevel(9); }}) {
+                gz.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        private static String sha256(byte[] data) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+                return HexFormat.of().formatHex(digest, 0, 16);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
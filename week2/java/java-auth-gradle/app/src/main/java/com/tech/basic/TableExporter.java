@@ -0,0 +1,395 @@
+package com.tech.basic;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+테이블 전체를 NDJSON 또는 CSV 파일로 내보낸다 (메모리 사용량은 테이블 크기와 무관)
+ - forward-only / read-only 결과셋 + fetchSize: 드라이버가 fetchSize 행씩 받아 오므로 전체를 메모리에 올리지 않는다
+ - 정수 단일 PK 가 있으면 chunkRows 행마다 경계 PK 를 찾아 구간으로 나누고 threads 개 커넥션이 병렬로 읽는다
+   경계는 PK 인덱스를 따라 chunkRows 행씩 건너뛰며 찾는다 (WHERE pk >= ? ORDER BY pk LIMIT 1 OFFSET chunkRows)
+   -> 구간 수는 행 수 / chunkRows 로 정해지고, id 가 듬성듬성하거나 아주 커도 빈 구간이 생기지 않는다
+   (WHERE pk >= ? AND pk <= ? ORDER BY pk: PK 인덱스 범위 스캔이라 정렬/전체 스캔 없음)
+   구간마다 part 파일에 쓰고 끝나면 PK 순서대로 이어 붙여 <table>.ndjson / <table>.csv 하나로 만든다
+ - PK 가 없거나 정수가 아니면 한 커넥션으로 순서대로 읽는다
+ - 테이블/컬럼 이름은 메타데이터에서 찾은 것만, DB 의 식별자 따옴표(getIdentifierQuoteString)로 감싸 SQL 에 넣는다
+ - progressMillis 마다 진행 상황(행 수, 초당 행 수, 끝난 구간 수) 출력
+구간마다 다른 커넥션/트랜잭션이므로 내보내는 동안 바뀐 행은 구간별로 서로 다른 시점의 값일 수 있다.
+ */
+public class TableExporter {
+
+    public enum Format { NDJSON, CSV }
+
+    public record Result(String table, Path file, long rows, int chunks, long nanos) {
+    }
+
+    private final ConnectionPool pool;
+    private final Path outDir;
+    private final Format format;
+    private final int fetchSize;
+    private final int threads;
+    private final long chunkRows;
+    // 내보내지 않을 컬럼 (소문자, 예: password)
+    private final Set<String> excludedColumns;
+    private final long progressMillis;
+
+    public TableExporter(ConnectionPool pool, Path outDir, Format format, int fetchSize, int threads,
+                         long chunkRows, Set<String> excludedColumns, long progressMillis) {
+        if (chunkRows < 1) {
+            throw new IllegalArgumentException("chunkRows >= 1 required");
+        }
+        this.pool = pool;
+        this.outDir = outDir;
+        this.format = format;
+        this.fetchSize = fetchSize;
+        this.threads = threads;
+        this.chunkRows = chunkRows;
+        this.excludedColumns = excludedColumns;
+        this.progressMillis = progressMillis;
+    }
+
+    // 현재 스키마(카탈로그)의 테이블 목록
+    public List<String> listTables() throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (ConnectionPool.Lease lease = pool.borrow()) {
+            Connection conn = lease.connection();
+            try (ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), conn.getSchema(), "%",
+                    new String[]{"TABLE"})) {
+                while (rs.next()) {
+                    tables.add(rs.getString("TABLE_NAME"));
+                }
+            }
+        }
+        return tables;
+    }
+
+    public Result export(String requested) throws Exception {
+        // 테이블/컬럼 이름은 메타데이터에서 찾은 것만 SQL 에 넣는다
+        String table = null;
+        for (String t : listTables()) {
+            if (t.equalsIgnoreCase(requested)) {
+                table = t;
+                break;
+            }
+        }
+        if (table == null) {
+            throw new IllegalArgumentException("no such table: " + requested);
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(outDir);
+        List<String> columns = new ArrayList<>();
+        String pk;
+        String select;
+        String rangeWhere = null;
+        // [from, to] 구간 목록 (양끝 포함). PK 를 쓸 수 없으면 전체 한 덩어리
+        List<long[]> chunks = new ArrayList<>();
+        try (ConnectionPool.Lease lease = pool.borrow()) {
+            Connection conn = lease.connection();
+            pk = integerPrimaryKey(conn, table, columns);
+            if (columns.isEmpty()) {
+                throw new IllegalArgumentException("every column of " + table + " is excluded");
+            }
+            String quote = conn.getMetaData().getIdentifierQuoteString();
+            String qTable = quote(quote, table);
+            List<String> qColumns = new ArrayList<>(columns.size());
+            for (String c : columns) {
+                qColumns.add(quote(quote, c));
+            }
+            select = "SELECT " + String.join(", ", qColumns) + " FROM " + qTable;
+            if (pk == null) {
+                chunks.add(null);
+            } else {
+                String qPk = quote(quote, pk);
+                rangeWhere = " WHERE " + qPk + " >= ? AND " + qPk + " <= ? ORDER BY " + qPk;
+                splitByRows(conn, qTable, qPk, chunks);
+            }
+        }
+
+        String ext = format == Format.NDJSON ? ".ndjson" : ".csv";
+        Path file = outDir.resolve(table + ext);
+        LongAdder rows = new LongAdder();
+        AtomicInteger done = new AtomicInteger();
+        ScheduledExecutorService progress = startProgress(table, rows, done, chunks.size(), start);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, chunks.size())));
+        List<Path> parts = new ArrayList<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < chunks.size(); i++) {
+                long[] range = chunks.get(i);
+                Path part = outDir.resolve(String.format("%s%s.part-%06d", table, ext, i));
+                parts.add(part);
+                String sql = range == null ? select : select + rangeWhere;
+                futures.add(workers.submit(() -> {
+                    exportChunk(sql, range, columns, part, rows);
+                    done.incrementAndGet();
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(other -> other.cancel(true));
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            merge(file, columns, parts);
+        } finally {
+            workers.shutdownNow();
+            if (progress != null) {
+                progress.shutdownNow();
+            }
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+        return new Result(table, file, rows.sum(), chunks.size(), System.nanoTime() - start);
+    }
+
+    /*
+    PK 순서로 chunkRows 행마다 경계를 찾아 [from, to] 구간을 chunks 에 채운다 (빈 테이블이면 구간 없음)
+    경계 하나에 PK 인덱스를 chunkRows 항목만큼 훑으므로 전체로는 인덱스를 한 번 읽는 비용이다.
+    마지막 구간은 Long.MAX_VALUE 까지 열어 두어 그 사이 추가된 행도 포함한다.
+     */
+    private void splitByRows(Connection conn, String qTable, String qPk, List<long[]> chunks) throws SQLException {
+        long from;
+        try (PreparedStatement ps = conn.prepareStatement("SELECT MIN(" + qPk + ") FROM " + qTable);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            from = rs.getLong(1);
+            if (rs.wasNull()) {
+                return;
+            }
+        }
+        // LIMIT/OFFSET 은 드라이버에 따라 자리표시자를 못 쓰므로 숫자를 직접 넣는다 (설정값, 사용자 입력 아님)
+        String next = "SELECT " + qPk + " FROM " + qTable + " WHERE " + qPk + " >= ? ORDER BY " + qPk
+                + " LIMIT 1 OFFSET " + chunkRows;
+        try (PreparedStatement ps = conn.prepareStatement(next)) {
+            while (true) {
+                ps.setLong(1, from);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        chunks.add(new long[]{from, Long.MAX_VALUE});
+                        return;
+                    }
+                    long to = rs.getLong(1);
+                    chunks.add(new long[]{from, to - 1});
+                    from = to;
+                }
+            }
+        }
+    }
+
+    // 식별자를 DB 의 따옴표로 감싼다 (안의 따옴표는 두 번). 따옴표를 지원하지 않으면(" ") 그대로
+    static String quote(String quote, String identifier) {
+        if (quote == null || quote.isBlank()) {
+            return identifier;
+        }
+        return quote + identifier.replace(quote, quote + quote) + quote;
+    }
+
+    // 정수형 단일 PK 이름 (없으면 null), columns 에는 내보낼 컬럼 이름을 채운다
+    private String integerPrimaryKey(Connection conn, String table, List<String> columns) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        List<String> keys = new ArrayList<>();
+        try (ResultSet rs = meta.getPrimaryKeys(conn.getCatalog(), conn.getSchema(), table)) {
+            while (rs.next()) {
+                keys.add(rs.getString("COLUMN_NAME"));
+            }
+        }
+        String pk = null;
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), conn.getSchema(), table, "%")) {
+            while (rs.next()) {
+                String name = rs.getString("COLUMN_NAME");
+                if (!excludedColumns.contains(name.toLowerCase(Locale.ROOT))) {
+                    columns.add(name);
+                }
+                if (keys.size() == 1 && keys.get(0).equals(name)) {
+                    int type = rs.getInt("DATA_TYPE");
+                    if (type == Types.BIGINT || type == Types.INTEGER || type == Types.SMALLINT
+                            || type == Types.TINYINT) {
+                        pk = name;
+                    }
+                }
+            }
+        }
+        return pk;
+    }
+
+    private void exportChunk(String sql, long[] range, List<String> columns, Path part, LongAdder rows)
+            throws Exception {
+        try (ConnectionPool.Lease lease = pool.borrow();
+             PreparedStatement ps = lease.connection().prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(Files.newOutputStream(part), StandardCharsets.UTF_8), 1 << 16)) {
+            ps.setFetchSize(fetchSize);
+            if (range != null) {
+                ps.setLong(1, range[0]);
+                ps.setLong(2, range[1]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                int[] types = new int[columns.size()];
+                for (int i = 0; i < types.length; i++) {
+                    types[i] = meta.getColumnType(i + 1);
+                }
+                StringBuilder line = new StringBuilder(256);
+                long n = 0;
+                while (rs.next()) {
+                    line.setLength(0);
+                    if (format == Format.NDJSON) {
+                        appendJson(line, rs, columns, types);
+                    } else {
+                        appendCsv(line, rs, types);
+                    }
+                    out.append(line);
+                    // 행마다 LongAdder 를 건드리지 않도록 모아서 더한다
+                    if (++n == 1000) {
+                        rows.add(n);
+                        n = 0;
+                    }
+                }
+                rows.add(n);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("export failed: " + sql, e);
+        }
+    }
+
+    private static void appendJson(StringBuilder line, ResultSet rs, List<String> columns, int[] types)
+            throws SQLException {
+        line.append('{');
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) line.append(',');
+            SimpleAuthServer.appendJsonString(line, columns.get(i));
+            line.append(':');
+            int col = i + 1;
+            switch (types[i]) {
+                case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT, Types.DECIMAL, Types.NUMERIC -> {
+                    String v = rs.getString(col);
+                    line.append(v == null ? "null" : v);
+                }
+                case Types.DOUBLE, Types.FLOAT, Types.REAL -> {
+                    double v = rs.getDouble(col);
+                    line.append(rs.wasNull() || !Double.isFinite(v) ? "null" : String.valueOf(v));
+                }
+                case Types.BOOLEAN, Types.BIT -> {
+                    boolean v = rs.getBoolean(col);
+                    line.append(rs.wasNull() ? "null" : String.valueOf(v));
+                }
+                default -> SimpleAuthServer.appendJsonString(line, text(rs, col, types[i]));
+            }
+        }
+        line.append("}\n");
+    }
+
+    private static void appendCsv(StringBuilder line, ResultSet rs, int[] types) throws SQLException {
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) line.append(',');
+            appendCsvField(line, text(rs, i + 1, types[i])); // NULL 은 빈 칸
+        }
+        line.append('\n');
+    }
+
+    // 바이너리는 base64, 나머지는 드라이버의 문자열 표현
+    private static String text(ResultSet rs, int col, int type) throws SQLException {
+        return switch (type) {
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> {
+                byte[] b = rs.getBytes(col);
+                yield b == null ? null : Base64.getEncoder().encodeToString(b);
+            }
+            default -> rs.getString(col);
+        };
+    }
+
+    // RFC 4180: 쉼표/따옴표/줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두 번
+    private static void appendCsvField(StringBuilder line, String v) {
+        if (v == null) return;
+        boolean quote = false;
+        for (int i = 0; i < v.length() && !quote; i++) {
+            char c = v.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(v);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    // part 파일을 순서대로 이어 붙인다 (커널 안에서 복사: transferTo)
+    private void merge(Path file, List<String> columns, List<Path> parts) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (format == Format.CSV) {
+                StringBuilder header = new StringBuilder();
+                for (int i = 0; i < columns.size(); i++) {
+                    if (i > 0) header.append(',');
+                    appendCsvField(header, columns.get(i));
+                }
+                header.append('\n');
+                out.write(StandardCharsets.UTF_8.encode(header.toString()));
+            }
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    for (long pos = 0; pos < size; ) {
+                        pos += in.transferTo(pos, size - pos, out);
+                    }
+                }
+            }
+        }
+    }
+
+    private ScheduledExecutorService startProgress(String table, LongAdder rows, AtomicInteger done, int chunks,
+                                                   long start) {
+        if (progressMillis <= 0) {
+            return null;
+        }
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "export-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        progress.scheduleAtFixedRate(() -> {
+            long n = rows.sum();
+            double secs = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%s: %,d rows, %,.0f rows/s, chunks %d/%d%n", table, n, n / secs, done.get(), chunks);
+        }, progressMillis, progressMillis, TimeUnit.MILLISECONDS);
+        return progress;
+    }
+}
@@ -0,0 +1,124 @@
+package com.tech.basic;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+키(IP, username 등)별 토큰 버킷 속도 제한
+ - burst 개까지 한 번에 허용, 이후 초당 ratePerSecond 개씩 채워진다
+ - 버킷은 SegmentedLruCache 에 둔다: 세그먼트 락이라 서로 다른 키끼리는 거의 경합하지 않고,
+   maxKeys 를 넘으면 가장 오래 안 쓴 키가 빠진다
+ - idle 제거: 가득 찰 만큼 쉬었던 버킷은 "없는 버킷" 과 같으므로 sweep 에서 지운다
+거절 경로도 해시 + 락 두 번 + 산술 몇 번이라 BCrypt/DB 까지 가는 요청보다 수만 배 싸다.
+ */
+public class TokenBucketLimiter implements AutoCloseable {
+
+    private final double burst;
+    private final double tokensPerNano;
+    // 빈 버킷이 가득 찰 때까지 걸리는 시간: 이보다 오래 쉰 버킷은 지워도 된다
+    private final long fullRefillNanos;
+    private final SegmentedLruCache<String, Bucket> buckets;
+    private final ScheduledExecutorService sweeper;
+
+    // ==== METRICS ==== //
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder swept = new LongAdder(); // idle 로 지운 버킷 (용량 초과 제거는 buckets 가 센다)
+
+    public TokenBucketLimiter(int burst, double ratePerSecond, int maxKeys, long sweepIntervalMillis) {
+        if (burst < 1 || ratePerSecond <= 0) {
+            throw new IllegalArgumentException("burst >= 1 and ratePerSecond > 0 required");
+        }
+        this.burst = burst;
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.fullRefillNanos = (long) Math.ceil(burst / tokensPerNano);
+        this.buckets = new SegmentedLruCache<>(maxKeys);
+        if (sweepIntervalMillis > 0) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "rate-limit-sweeper");
+                t.setDaemon(true);
+                return t;
+            });
+            sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            sweeper = null;
+        }
+    }
+
+    // 허용이면 0, 거절이면 토큰 하나가 찰 때까지 남은 시간(나노초)
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        Bucket b = buckets.computeIfAbsent(key, k -> new Bucket(burst, now));
+        long wait;
+        synchronized (b) {
+            refill(b, now);
+            if (b.tokens >= 1) {
+                b.tokens -= 1;
+                wait = 0;
+            } else {
+                wait = (long) Math.ceil((1 - b.tokens) / tokensPerNano);
+            }
+        }
+        if (wait == 0) {
+            allowed.increment();
+        } else {
+            rejected.increment();
+        }
+        return wait;
+    }
+
+    /*
+    tryAcquire 로 쓴 토큰 하나를 돌려준다 (burst 를 넘지 않게, 그 사이 지워진 키면 무시)
+    "실패한 시도만 센다" 에 쓴다: 토큰은 시도 전에 원자적으로 가져가야 동시 요청 N 개가 모두 통과하지 못하고,
+    성공한 시도는 끝난 뒤 돌려받으므로 정상 사용자는 자기 버킷을 소진하지 않는다.
+     */
+    public void refund(String key) {
+        Bucket b = buckets.get(key);
+        if (b != null) {
+            long now = System.nanoTime();
+            synchronized (b) {
+                refill(b, now);
+                b.tokens = Math.min(burst, b.tokens + 1);
+            }
+        }
+    }
+
+    private void refill(Bucket b, long now) {
+        // 다른 스레드가 더 늦은 now 로 먼저 채웠으면 그대로 (시간이 거꾸로 가지 않게)
+        if (now > b.lastNanos) {
+            b.tokens = Math.min(burst, b.tokens + (now - b.lastNanos) * tokensPerNano);
+            b.lastNanos = now;
+        }
+    }
+
+    void sweep() {
+        long now = System.nanoTime();
+        // access-order 이므로 세그먼트 앞쪽이 가장 오래 안 쓴 버킷: 최근 버킷을 만나면 멈춘다
+        swept.add(buckets.expireHeads(b -> now - b.lastNanos >= fullRefillNanos));
+    }
+
+    public int size() { return buckets.size(); }
+    public int getMaxKeys() { return buckets.getMaxSize(); }
+    public long getAllowedCount() { return allowed.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+    public long getEvictedCount() { return swept.sum() + buckets.getEvictionCount(); }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private static final class Bucket {
+        double tokens;
+        volatile long lastNanos;
+
+        Bucket(double tokens, long lastNanos) {
+            this.tokens = tokens;
+            this.lastNanos = lastNanos;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tech.basic;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.tech.basic.SimpleAuthServer.JwtUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+검증이 끝난 JWT 캐시
+ - 키는 토큰 원문이 아니라 SHA-256 (메모리 절약 + 토큰 원문을 들고 있지 않기 위해)
+ - 항목은 토큰의 exp 시각에 만료, 최대 maxSize 개 (SegmentedLruCache)
+ - 검증에 실패한 토큰은 캐시하지 않는다 (위조 토큰으로 캐시를 밀어내지 못하도록)
+같은 토큰이 반복해서 들어오면 HMAC 검증과 claim 파싱은 처음 한 번만 한다.
+ */
+public class VerifiedTokenCache {
+
+    private final SegmentedLruCache<String, Entry> cache;
+
+    // ==== METRICS ==== //
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public VerifiedTokenCache(int maxSize) {
+        this.cache = new SegmentedLruCache<>(maxSize);
+    }
+
+    // 유효하면 디코딩된 토큰, 서명/만료/발급자 검증에 실패하면 null
+    public DecodedJWT verify(String token) {
+        if (token == null || token.isEmpty()) {
+            rejected.increment();
+            return null;
+        }
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+        Entry e = cache.get(key);
+        if (e != null) {
+            if (e.expiresAt > now) {
+                hits.increment();
+                return e.jwt;
+            }
+            cache.remove(key, e);
+        }
+        misses.increment();
+        DecodedJWT jwt;
+        try {
+            jwt = JwtUtil.verify(token);
+        } catch (JWTVerificationException invalid) {
+            rejected.increment();
+            return null;
+        }
+        if (jwt.getExpiresAt() != null) {
+            cache.put(key, new Entry(jwt, jwt.getExpiresAt().getTime()));
+        }
+        return jwt;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public int size() { return cache.size(); }
+    public int getMaxSize() { return cache.getMaxSize(); }
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+
+    private static final class Entry {
+        final DecodedJWT jwt;
+        final long expiresAt;
+
+        Entry(DecodedJWT jwt, long expiresAt) {
+            this.jwt = jwt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}